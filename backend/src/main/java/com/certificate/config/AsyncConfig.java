@@ -1,24 +1,159 @@
 package com.certificate.config;
 
+import com.certificate.util.ExecutorStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.jmx.export.MBeanExporter;
+import org.springframework.jmx.export.annotation.AnnotationMBeanExporter;
+import org.springframework.jmx.support.RegistrationPolicy;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
-import java.util.concurrent.Executor;
 
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * One executor per workload so a large email campaign cannot starve rendering,
+ * storage or cleanup. Every pool has a bounded queue and an explicit policy for
+ * when it is full, and publishes its stats over JMX (see {@link ExecutorStats}).
+ *
+ * <p>With {@code spring.threads.virtual.enabled=true} on Java 21+ the I/O-bound
+ * email and storage work runs on a virtual thread per task instead of a pool
+ * (Spring Boot does the same for request handling). Their real limits, SMTP
+ * connections and database connections, are then enforced by
+ * {@link com.certificate.service.ConcurrencyLimits}.
+ */
+@Slf4j
 @Configuration
 @EnableAsync
+@EnableScheduling
 public class AsyncConfig {
 
-    @Bean(name = "taskExecutor")
-    public Executor taskExecutor() {
+    private final boolean virtualThreads;
+    private final MBeanExporter statsExporter;
+
+    public AsyncConfig(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            MBeanExporter statsExporter) {
+        if (virtualThreads && Runtime.version().feature() < 21) {
+            log.warn("spring.threads.virtual.enabled needs Java 21+, running on {}; using thread pools",
+                    Runtime.version());
+            virtualThreads = false;
+        }
+        this.virtualThreads = virtualThreads;
+        this.statsExporter = statsExporter;
+    }
+
+    /**
+     * Publishes the executor stats over JMX and unregisters them on shutdown.
+     * Spring Boot only creates an exporter with {@code spring.jmx.enabled=true},
+     * and then backs off to this one.
+     */
+    @Bean
+    public static AnnotationMBeanExporter mbeanExporter() {
+        AnnotationMBeanExporter exporter = new AnnotationMBeanExporter();
+        exporter.setRegistrationPolicy(RegistrationPolicy.REPLACE_EXISTING);
+        return exporter;
+    }
+
+    /**
+     * CPU-bound certificate rendering, about one thread per core. When full the
+     * submitting thread renders itself, which throttles the producer.
+     */
+    @Bean(name = "renderExecutor")
+    public ThreadPoolTaskExecutor renderExecutor(
+            @Value("${app.executor.render.threads:0}") int threads,
+            @Value("${app.executor.render.queue-capacity:256}") int queueCapacity) {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return build("render", size, size, queueCapacity, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * SMTP sends. Mostly waiting on the mail server, so many threads; when the
+     * queue is full the caller sends inline instead of dropping the email.
+     */
+    @Bean(name = "emailExecutor")
+    public AsyncTaskExecutor emailExecutor(
+            @Value("${app.executor.email.core-threads:20}") int coreThreads,
+            @Value("${app.executor.email.max-threads:50}") int maxThreads,
+            @Value("${app.executor.email.queue-capacity:10000}") int queueCapacity) {
+        if (virtualThreads) {
+            return buildVirtual("email");
+        }
+        return build("email", coreThreads, maxThreads, queueCapacity, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Certificate file writes and uploads; caller-runs when full
+     */
+    @Bean(name = "storageExecutor")
+    public AsyncTaskExecutor storageExecutor(
+            @Value("${app.executor.storage.core-threads:4}") int coreThreads,
+            @Value("${app.executor.storage.max-threads:16}") int maxThreads,
+            @Value("${app.executor.storage.queue-capacity:1000}") int queueCapacity) {
+        if (virtualThreads) {
+            return buildVirtual("storage");
+        }
+        return build("storage", coreThreads, maxThreads, queueCapacity, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Runs the work-queue tasks this node has claimed. The worker only claims
+     * as many tasks as there are idle threads, so nothing waits in the queue.
+     */
+    @Bean(name = "queueExecutor")
+    public ThreadPoolTaskExecutor queueExecutor(@Value("${app.queue.concurrency:4}") int concurrency) {
+        return build("queue", concurrency, concurrency, concurrency, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Background work such as file cleanup. Also the default for unqualified
+     * {@code @Async}. When full the caller runs the task itself, so no cleanup
+     * is lost; the queue is large enough that this only happens in a flood.
+     */
+    @Bean(name = { "maintenanceExecutor", "taskExecutor" })
+    public ThreadPoolTaskExecutor maintenanceExecutor(
+            @Value("${app.executor.maintenance.threads:2}") int threads,
+            @Value("${app.executor.maintenance.queue-capacity:1000}") int queueCapacity) {
+        return build("maintenance", threads, threads, queueCapacity, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * A new virtual thread per task. Nothing is queued or rejected; callers
+     * bound the work through semaphores around the resources it uses.
+     */
+    private SimpleAsyncTaskExecutor buildVirtual(String name) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(
+                Character.toUpperCase(name.charAt(0)) + name.substring(1) + "-v-");
+        executor.setVirtualThreads(true);
+        executor.setTaskTerminationTimeout(30_000);
+
+        ExecutorStats stats = new ExecutorStats(name);
+        executor.setTaskDecorator(stats.decorator());
+        stats.register(statsExporter);
+        log.info("{} executor uses virtual threads", name);
+        return executor;
+    }
+
+    private ThreadPoolTaskExecutor build(String name, int coreThreads, int maxThreads, int queueCapacity,
+            RejectedExecutionHandler policy) {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(50); // 50 parallel email streams for absolute speed
-        executor.setMaxPoolSize(100);
-        executor.setQueueCapacity(2000);
-        executor.setThreadNamePrefix("EmailThread-");
+        executor.setCorePoolSize(coreThreads);
+        executor.setMaxPoolSize(Math.max(coreThreads, maxThreads));
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(Character.toUpperCase(name.charAt(0)) + name.substring(1) + "-");
         executor.setKeepAliveSeconds(60);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+
+        ExecutorStats stats = new ExecutorStats(name, executor);
+        executor.setRejectedExecutionHandler(stats.counting(policy));
         executor.initialize();
+        stats.register(statsExporter);
         return executor;
     }
 }
@@ -0,0 +1,107 @@
+package com.certificate.config;
+
+import com.certificate.service.ClusterBus;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the Hibernate second-level cache of every node in step. Each committed
+ * insert, update or delete of a cached entity is sent over the {@link ClusterBus};
+ * the other nodes evict that entity and the query cache. Bulk JPQL deletes
+ * bypass these events, so their callers use {@link #evictEverywhere(Class)}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SecondLevelCacheSync implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+
+    private static final String ENTITY = "l2-entity";
+    private static final String REGION = "l2-region";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ClusterBus clusterBus;
+
+    private SessionFactoryImplementor sessionFactory;
+
+    @PostConstruct
+    void register() {
+        sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+
+        clusterBus.subscribe(ENTITY, key -> {
+            int separator = key.lastIndexOf(':');
+            sessionFactory.getCache().evictEntityData(key.substring(0, separator),
+                    Long.valueOf(key.substring(separator + 1)));
+            sessionFactory.getCache().evictQueryRegions();
+        });
+        clusterBus.subscribe(REGION, entityName -> {
+            sessionFactory.getCache().evictEntityData(entityName);
+            sessionFactory.getCache().evictQueryRegions();
+        });
+        clusterBus.onResync(() -> sessionFactory.getCache().evictAllRegions());
+    }
+
+    /**
+     * Drop an entity's whole region on the other nodes, after a bulk delete that
+     * this node's Hibernate has already invalidated locally
+     */
+    public void evictEverywhere(Class<?> entityClass) {
+        clusterBus.publish(REGION, entityClass.getName());
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        publish(event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        publish(event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        publish(event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // Rolled back, nothing reached the other nodes' caches
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // Rolled back, nothing reached the other nodes' caches
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // Rolled back, nothing reached the other nodes' caches
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return persister.canWriteToCache();
+    }
+
+    private void publish(EntityPersister persister, Object id) {
+        clusterBus.publish(ENTITY, persister.getEntityName() + ":" + id);
+    }
+}
@@ -2,6 +2,7 @@ package com.certificate.config;
 
 import com.certificate.security.JwtAuthenticationFilter;
 import com.certificate.security.CustomOAuth2SuccessHandler;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -39,6 +40,8 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .authorizeHttpRequests(auth -> auth
+                        // Completion of SSE/async responses already authenticated on the original request
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/auth/**", "/oauth2/**", "/login/oauth2/**", "/certificates/verify/**")
                         .permitAll()
                         .anyRequest().authenticated())
@@ -1,20 +1,28 @@
 package com.certificate.controller;
 
 import com.certificate.dto.CertificateStatusDTO;
+import com.certificate.dto.CertificateStatusPageDTO;
 import com.certificate.dto.EventUpdateEmailRequest;
 import com.certificate.service.CertificateServicePng;
+import com.certificate.service.PreviewService;
+import com.certificate.service.PreviewService.Preview;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @RestController
@@ -23,6 +31,7 @@ import java.util.Map;
 public class CertificateController {
 
     private final CertificateServicePng certificateService;
+    private final PreviewService previewService;
 
     @PostMapping("/events/{eventId}/generate")
     public ResponseEntity<?> generateCertificates(@PathVariable Long eventId, Authentication authentication) {
@@ -35,11 +44,49 @@ public class CertificateController {
     }
 
     @GetMapping("/events/{eventId}/status")
-    public ResponseEntity<?> getCertificateStatus(@PathVariable Long eventId, Authentication authentication) {
+    public ResponseEntity<?> getCertificateStatus(
+            @PathVariable Long eventId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) String afterName,
+            @RequestParam(defaultValue = "id") String sort,
+            Authentication authentication) {
         try {
-            List<CertificateStatusDTO> status = certificateService.getCertificateStatus(eventId,
-                    authentication.getName());
-            return ResponseEntity.ok(status);
+            if (limit != null) {
+                CertificateStatusPageDTO page = certificateService.getCertificateStatusPage(eventId,
+                        authentication.getName(), status, sort, afterId, afterName, limit);
+                return ResponseEntity.ok(page);
+            }
+            List<CertificateStatusDTO> statuses = certificateService.getCertificateStatus(eventId,
+                    authentication.getName(), status);
+            return ResponseEntity.ok(statuses);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * Delta polling: rows changed after "since" plus the next watermark. Without
+     * "since" it returns every row, which also serves as the initial snapshot.
+     */
+    @GetMapping("/events/{eventId}/status/changes")
+    public ResponseEntity<?> getCertificateStatusChanges(
+            @PathVariable Long eventId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            Authentication authentication) {
+        try {
+            return ResponseEntity.ok(certificateService.getCertificateStatusChanges(eventId,
+                    authentication.getName(), since));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/events/{eventId}/summary")
+    public ResponseEntity<?> getCertificateSummary(@PathVariable Long eventId, Authentication authentication) {
+        try {
+            return ResponseEntity.ok(certificateService.getCertificateSummary(eventId, authentication.getName()));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
         }
@@ -59,6 +106,36 @@ public class CertificateController {
         }
     }
 
+    /**
+     * Small PNG/JPEG preview of an issued certificate. The ETag identifies the
+     * rendered content (the template the PDF used, certificate, size and format)
+     * and is checked before rendering.
+     */
+    @GetMapping("/{certificateId}/preview")
+    public ResponseEntity<?> previewCertificate(
+            @PathVariable Long certificateId,
+            @RequestParam(defaultValue = "480") int width,
+            @RequestParam(defaultValue = "png") String format,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch,
+            Authentication authentication) {
+        try {
+            Preview preview = previewService.certificatePreview(certificateId, authentication.getName(), width,
+                    format, ifNoneMatch);
+            String etag = "\"" + preview.etag() + "\"";
+            CacheControl cacheControl = CacheControl.maxAge(5, TimeUnit.MINUTES).cachePrivate();
+            if (preview.notModified()) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+            }
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(preview.contentType()))
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .body(preview.data());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+        }
+    }
+
     @GetMapping("/events/{eventId}/download-all")
     public ResponseEntity<?> downloadAllCertificates(@PathVariable Long eventId, Authentication authentication) {
         try {
@@ -2,11 +2,14 @@ package com.certificate.controller;
 
 import com.certificate.dto.MessageDTO;
 import com.certificate.dto.MessageRequest;
+import com.certificate.service.AuthService;
 import com.certificate.service.MessageService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Map;
@@ -17,6 +20,7 @@ import java.util.Map;
 public class MessageController {
 
     private final MessageService messageService;
+    private final AuthService authService;
 
     @PostMapping("/send")
     public ResponseEntity<?> sendMessages(@RequestBody MessageRequest request, Authentication authentication) {
@@ -39,6 +43,24 @@ public class MessageController {
         return ResponseEntity.ok(Map.of("count", messageService.getUnreadCount(authentication.getName())));
     }
 
+    /**
+     * Short-lived ticket to pass as {@code ?ticket=} when opening the stream
+     */
+    @PostMapping("/stream-ticket")
+    public ResponseEntity<Map<String, String>> getStreamTicket(Authentication authentication) {
+        return ResponseEntity.ok(Map.of("ticket", authService.issueStreamTicket(authentication.getName())));
+    }
+
+    /**
+     * Server-Sent Events stream: "message" for each new message,
+     * "unread-count" whenever the badge count changes and "activity" when the
+     * user's collaboration requests or activity feed changed.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(Authentication authentication) {
+        return messageService.subscribe(authentication.getName());
+    }
+
     @GetMapping("/unread")
     public ResponseEntity<List<MessageDTO>> getUnreadMessages(Authentication authentication) {
         return ResponseEntity.ok(messageService.getUnreadMessages(authentication.getName()));
@@ -1,14 +1,21 @@
 package com.certificate.controller;
 
 import com.certificate.entity.Template;
+import com.certificate.entity.TemplateBlob;
+import com.certificate.service.PreviewService;
+import com.certificate.service.PreviewService.Preview;
 import com.certificate.service.TemplateService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/events/{eventId}/template")
@@ -16,6 +23,7 @@ import java.io.IOException;
 public class TemplateController {
 
     private final TemplateService templateService;
+    private final PreviewService previewService;
 
     @PostMapping("/upload")
     public ResponseEntity<?> uploadTemplate(
@@ -40,6 +48,70 @@ public class TemplateController {
         return ResponseEntity.ok(template);
     }
 
+    /**
+     * Template image bytes. The ETag is the content hash, so browsers can keep the
+     * image until the template is replaced.
+     */
+    @GetMapping("/image")
+    public ResponseEntity<?> getTemplateImage(
+            @PathVariable Long eventId,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch,
+            Authentication authentication) {
+        Template template = templateService.getTemplate(eventId, authentication.getName());
+        if (template == null || template.getImageHash() == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        String etag = "\"" + template.getImageHash() + "\"";
+        CacheControl cacheControl = CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate();
+        if (etag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+
+        try {
+            TemplateBlob blob = templateService.getTemplateImage(template.getImageHash());
+            return ResponseEntity.ok()
+                    .contentType(MediaType.IMAGE_PNG)
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .body(blob.getData());
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Small PNG/JPEG preview of the template with a sample name. Always
+     * revalidated, so the editing screen sees a replaced template at once; the
+     * ETag identifies the rendered content and is checked before rendering, so
+     * unchanged previews cost a 304 and no rendering.
+     */
+    @GetMapping("/preview")
+    public ResponseEntity<?> getTemplatePreview(
+            @PathVariable Long eventId,
+            @RequestParam(defaultValue = "Participant Name") String name,
+            @RequestParam(defaultValue = "480") int width,
+            @RequestParam(defaultValue = "png") String format,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch,
+            Authentication authentication) {
+        try {
+            Preview preview = previewService.templatePreview(eventId, authentication.getName(), name, width, format,
+                    ifNoneMatch);
+            String etag = "\"" + preview.etag() + "\"";
+            CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+            if (preview.notModified()) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+            }
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(preview.contentType()))
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .body(preview.data());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @DeleteMapping
     public ResponseEntity<?> deleteTemplate(
             @PathVariable Long eventId,
@@ -9,6 +9,7 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class CertificateStatusDTO {
     private Long id;
+    private Long participantId;
     private String participantName;
     private String email;
     private String generationStatus;
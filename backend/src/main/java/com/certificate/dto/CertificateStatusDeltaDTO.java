@@ -0,0 +1,21 @@
+package com.certificate.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Status rows changed since a watermark (all rows when no watermark was given).
+ * Pass watermark back as "since" on the next poll; rows may repeat across polls
+ * and should be merged by participantId.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CertificateStatusDeltaDTO {
+    private List<CertificateStatusDTO> items;
+    private LocalDateTime watermark;
+}
@@ -0,0 +1,21 @@
+package com.certificate.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One keyset page of certificate status rows. Pass nextAfterId (and
+ * nextAfterName when sorting by name) back to fetch the following page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CertificateStatusPageDTO {
+    private List<CertificateStatusDTO> items;
+    private boolean hasMore;
+    private Long nextAfterId;
+    private String nextAfterName;
+}
@@ -0,0 +1,21 @@
+package com.certificate.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Participant and certificate status counts of an event
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CertificateSummaryDTO {
+    private Long eventId;
+    private long participants;
+    private long generated;
+    private long generationFailed;
+    private long emailsSent;
+    private long emailsFailed;
+    private long emailsPending;
+}
@@ -14,4 +14,8 @@ public class EventRequest {
     private LocalDate eventDate;
     private String organizerName;
     private String instituteName;
+    // Optional PDF image encoding policy
+    private String imageEncoding;
+    private Float jpegQuality;
+    private Integer imageDpi;
 }
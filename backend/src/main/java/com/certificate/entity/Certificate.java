@@ -32,6 +32,10 @@ public class Certificate {
     @Column(name = "file_path")
     private String filePath;
 
+    // Image hash of the template the PDF was rendered with ("default" for the built-in one)
+    @Column(name = "template_hash", length = 64)
+    private String templateHash;
+
     @Column(name = "generation_status")
     private String generationStatus = "PENDING";
 
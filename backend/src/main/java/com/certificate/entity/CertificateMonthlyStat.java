@@ -0,0 +1,36 @@
+package com.certificate.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Rollup of certificates created per event and calendar month. Maintained
+ * incrementally as certificates are created or removed so the dashboard never
+ * has to scan the certificates table.
+ */
+@Entity
+@Table(name = "certificate_monthly_stats", uniqueConstraints = @UniqueConstraint(name = "uk_certificate_monthly_stats_event_month", columnNames = {
+        "event_id", "month_start" }))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CertificateMonthlyStat {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "event_id", nullable = false)
+    private Long eventId;
+
+    // First day of the month the certificates were created in
+    @Column(name = "month_start", nullable = false)
+    private LocalDate monthStart;
+
+    @Column(name = "certificate_count", nullable = false)
+    private Long certificateCount = 0L;
+}
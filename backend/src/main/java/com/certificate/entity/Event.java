@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -12,6 +14,8 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "events")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "event")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -36,6 +40,16 @@ public class Event {
     @Column(name = "organizer_id", nullable = false)
     private Long organizerId;
 
+    // How the certificate image is embedded in generated PDFs; null fields use the app defaults
+    @Column(name = "image_encoding", length = 16)
+    private String imageEncoding; // LOSSLESS or JPEG
+
+    @Column(name = "jpeg_quality")
+    private Float jpegQuality;
+
+    @Column(name = "image_dpi")
+    private Integer imageDpi;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
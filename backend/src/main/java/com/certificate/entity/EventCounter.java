@@ -0,0 +1,42 @@
+package com.certificate.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Per-event participant and certificate status counts. Maintained
+ * incrementally whenever generation or email dispatch moves a status, so
+ * summaries never have to scan the participants or certificates tables.
+ */
+@Entity
+@Table(name = "event_counters")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventCounter {
+
+    @Id
+    @Column(name = "event_id")
+    private Long eventId;
+
+    @Column(name = "participants", nullable = false)
+    private long participants;
+
+    @Column(name = "generated", nullable = false)
+    private long generated;
+
+    @Column(name = "generation_failed", nullable = false)
+    private long generationFailed;
+
+    @Column(name = "emails_sent", nullable = false)
+    private long emailsSent;
+
+    @Column(name = "emails_failed", nullable = false)
+    private long emailsFailed;
+
+    // Emails currently being sent (status SENDING)
+    @Column(name = "emails_pending", nullable = false)
+    private long emailsPending;
+}
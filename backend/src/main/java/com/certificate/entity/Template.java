@@ -4,12 +4,16 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "templates")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "template")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -25,9 +29,9 @@ public class Template {
     @Column(name = "template_name")
     private String templateName;
 
-    @Lob
-    @Column(name = "image_data", columnDefinition = "BYTEA")
-    private byte[] imageData;
+    // SHA-256 of the image bytes; the bytes live in template_blobs
+    @Column(name = "image_hash", length = 64)
+    private String imageHash;
 
     @Column(name = "is_default")
     private Boolean isDefault = false;
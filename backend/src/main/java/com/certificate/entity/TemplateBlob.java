@@ -0,0 +1,42 @@
+package com.certificate.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Content-addressed template image storage. Rows are keyed by the SHA-256 of
+ * the image bytes so identical uploads share one row, and the bytes are only
+ * read when a render or the image endpoint actually needs them. The original
+ * upload is kept next to its render-ready form.
+ */
+@Entity
+@Table(name = "template_blobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TemplateBlob {
+
+    @Id
+    @Column(name = "hash", length = 64)
+    private String hash;
+
+    @Column(name = "data", columnDefinition = "BYTEA", nullable = false)
+    private byte[] data;
+
+    @Column(name = "size_bytes")
+    private Long sizeBytes;
+
+    // PNG of the image already scaled and flattened to the render target, so
+    // renders skip the rescale and color conversion
+    @Column(name = "flattened_data", columnDefinition = "BYTEA")
+    private byte[] flattenedData;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,72 @@
+package com.certificate.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A unit of background work (a batch of certificates to render or emails to
+ * send) shared by all backend instances. A node claims a task by locking its
+ * row, marking it CLAIMED and taking a lease; a claim whose lease runs out is
+ * picked up again by any node.
+ */
+@Entity
+@Table(name = "work_tasks", indexes = @Index(name = "idx_work_tasks_status", columnList = "status, id"))
+@Data
+@NoArgsConstructor
+public class WorkTask {
+
+    public static final String GENERATE_CERTIFICATES = "GENERATE_CERTIFICATES";
+    public static final String SEND_CERTIFICATES = "SEND_CERTIFICATES";
+    public static final String SEND_UPDATES = "SEND_UPDATES";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 40)
+    private String type;
+
+    @Column(name = "event_id", nullable = false)
+    private Long eventId;
+
+    // Comma-separated certificate or participant ids, depending on the type
+    @Column(name = "item_ids", nullable = false, columnDefinition = "TEXT")
+    private String itemIds;
+
+    // Comma-terminated ids of the items already done, so a retried or resumed task skips them
+    @Column(name = "done_item_ids", columnDefinition = "TEXT")
+    private String doneItemIds;
+
+    // Type-specific JSON, e.g. the subject and body of an update email
+    @Column(columnDefinition = "TEXT")
+    private String payload;
+
+    // PENDING, CLAIMED, DONE or FAILED
+    @Column(nullable = false, length = 20)
+    private String status = "PENDING";
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "claimed_by", length = 100)
+    private String claimedBy;
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,53 @@
+package com.certificate.repository;
+
+import com.certificate.entity.CertificateMonthlyStat;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface CertificateMonthlyStatRepository extends JpaRepository<CertificateMonthlyStat, Long> {
+
+    // Declare the touched table so Hibernate does not evict every second-level cache region
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "certificate_monthly_stats"))
+    @Modifying
+    @Query(value = "INSERT INTO certificate_monthly_stats (event_id, month_start, certificate_count) "
+            + "VALUES (:eventId, :monthStart, :delta) "
+            + "ON CONFLICT (event_id, month_start) DO UPDATE "
+            + "SET certificate_count = certificate_monthly_stats.certificate_count + EXCLUDED.certificate_count", nativeQuery = true)
+    void addToCount(@Param("eventId") Long eventId, @Param("monthStart") LocalDate monthStart,
+            @Param("delta") long delta);
+
+    // Declare the touched table so Hibernate does not evict every second-level cache region
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "certificate_monthly_stats"))
+    @Modifying
+    @Query(value = "INSERT INTO certificate_monthly_stats (event_id, month_start, certificate_count) "
+            + "SELECT event_id, CAST(date_trunc('month', created_at) AS DATE), COUNT(*) "
+            + "FROM certificates WHERE created_at IS NOT NULL "
+            + "GROUP BY event_id, CAST(date_trunc('month', created_at) AS DATE)", nativeQuery = true)
+    int rebuildFromCertificates();
+
+    @Query("SELECT COALESCE(SUM(s.certificateCount), 0) FROM CertificateMonthlyStat s "
+            + "WHERE s.eventId IN (SELECT e.id FROM Event e WHERE e.organizerId = :organizerId)")
+    long sumByOrganizerId(@Param("organizerId") Long organizerId);
+
+    /**
+     * Rows of [monthStart, certificateCount] for an organizer's events since the given month
+     */
+    @Query("SELECT s.monthStart, SUM(s.certificateCount) FROM CertificateMonthlyStat s "
+            + "WHERE s.eventId IN (SELECT e.id FROM Event e WHERE e.organizerId = :organizerId) "
+            + "AND s.monthStart >= :from GROUP BY s.monthStart")
+    List<Object[]> sumMonthlyByOrganizerId(@Param("organizerId") Long organizerId, @Param("from") LocalDate from);
+
+    @Modifying
+    @Query("DELETE FROM CertificateMonthlyStat s WHERE s.eventId = :eventId")
+    void deleteByEventId(@Param("eventId") Long eventId);
+}
@@ -1,23 +1,155 @@
 package com.certificate.repository;
 
+import com.certificate.dto.CertificateStatusDTO;
 import com.certificate.entity.Certificate;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CertificateRepository extends JpaRepository<Certificate, Long> {
+
+    String VERIFICATION_ROW = "SELECT c.eventId, c.generationStatus, p.name, e.eventName, e.eventDate, "
+            + "e.organizerName, e.instituteName, c.generatedAt "
+            + "FROM Certificate c JOIN Participant p ON p.id = c.participantId JOIN Event e ON e.id = c.eventId "
+            + "WHERE c.verificationId = :verificationId";
+
     List<Certificate> findByEventId(Long eventId);
 
     Optional<Certificate> findByParticipantId(Long participantId);
 
     Optional<Certificate> findByVerificationId(String verificationId);
 
-    void deleteByEventId(Long eventId);
+    /**
+     * Everything the public verification page shows, in one round trip:
+     * eventId, generationStatus, participant name, event name, event date,
+     * organizer name, institute name, generatedAt.
+     */
+    @Query(VERIFICATION_ROW)
+    List<Object[]> findVerificationRow(@Param("verificationId") String verificationId);
+
+    /**
+     * {@link #findVerificationRow} for callers that have an answer without the
+     * database and would rather not wait on a slow one
+     */
+    @Query(VERIFICATION_ROW)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.query.timeout", value = "1000"))
+    List<Object[]> findVerificationRowWithTimeout(@Param("verificationId") String verificationId);
+
+    @Modifying
+    @Query("DELETE FROM Certificate c WHERE c.eventId = :eventId")
+    int deleteByEventId(@Param("eventId") Long eventId);
+
+    /**
+     * Status rows whose certificate changed after the watermark (served by the
+     * (event_id, updated_at) index on certificates)
+     */
+    @Query(STATUS_SELECT + "FROM Certificate c JOIN Participant p ON p.id = c.participantId AND p.eventId = c.eventId "
+            + "WHERE c.eventId = :eventId AND c.updatedAt > :since")
+    List<CertificateStatusDTO> findStatusByCertificateChangedSince(@Param("eventId") Long eventId,
+            @Param("since") LocalDateTime since);
+
+    /**
+     * Status rows whose participant changed after the watermark (e.g. update email status)
+     */
+    @Query(STATUS_SELECT + "FROM Participant p LEFT JOIN Certificate c ON c.participantId = p.id AND c.eventId = p.eventId "
+            + "WHERE p.eventId = :eventId AND p.updatedAt > :since")
+    List<CertificateStatusDTO> findStatusByParticipantChangedSince(@Param("eventId") Long eventId,
+            @Param("since") LocalDateTime since);
+
+    /**
+     * Re-stamp certificates written by a long-running transaction just before it
+     * commits, so delta polls that ran meanwhile still pick them up
+     */
+    @Modifying
+    @Query("UPDATE Certificate c SET c.updatedAt = :now WHERE c.eventId = :eventId AND c.updatedAt >= :from")
+    int touchUpdatedSince(@Param("eventId") Long eventId, @Param("from") LocalDateTime from,
+            @Param("now") LocalDateTime now);
+
+    /**
+     * Record the outcome of rendering a queued certificate. Only applies while
+     * it is still PENDING, so a certificate deleted or regenerated meanwhile is
+     * left alone; returns 0 in that case.
+     */
+    @Modifying
+    @Query("UPDATE Certificate c SET c.generationStatus = :status, c.filePath = :filePath, "
+            + "c.templateHash = :templateHash, c.generatedAt = :generatedAt, c.errorMessage = :error, "
+            + "c.updatedAt = :now WHERE c.id = :id AND c.generationStatus = 'PENDING'")
+    int finishGeneration(@Param("id") Long id, @Param("status") String status, @Param("filePath") String filePath,
+            @Param("templateHash") String templateHash, @Param("generatedAt") LocalDateTime generatedAt,
+            @Param("error") String error, @Param("now") LocalDateTime now);
+
+    /**
+     * Record the template a lazily generated certificate was rendered with, once its file is stored
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Certificate c SET c.templateHash = :templateHash WHERE c.id = :id")
+    int recordTemplate(@Param("id") Long id, @Param("templateHash") String templateHash);
+
+    @Query("SELECT c.id FROM Certificate c WHERE c.eventId = :eventId AND c.generationStatus = :status ORDER BY c.id")
+    List<Long> findIdsByEventIdAndGenerationStatus(@Param("eventId") Long eventId, @Param("status") String status);
+
+    @Query("SELECT c.filePath FROM Certificate c WHERE c.eventId = :eventId AND c.filePath IS NOT NULL")
+    List<String> findFilePathsByEventId(@Param("eventId") Long eventId);
+
+    /**
+     * Certificates after the given id whose file is not under a store key
+     * ({@code <2 hex digits>/<eventId>/<file>}), i.e. written before the store existed
+     */
+    @Query("SELECT c FROM Certificate c WHERE c.id > :afterId AND c.filePath IS NOT NULL "
+            + "AND c.filePath NOT LIKE '__/%' ORDER BY c.id")
+    List<Certificate> findUnkeyedAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Point a certificate at its new key, unless its file changed meanwhile
+     */
+    @Modifying
+    @Query("UPDATE Certificate c SET c.filePath = :key WHERE c.id = :id AND c.filePath = :previous")
+    int moveFile(@Param("id") Long id, @Param("previous") String previous, @Param("key") String key);
 
     long countByEventIdIn(List<Long> eventIds);
 
     List<Certificate> findByEventIdIn(List<Long> eventIds);
+
+    String STATUS_SELECT = "SELECT new com.certificate.dto.CertificateStatusDTO(c.id, p.id, p.name, p.email, "
+            + "COALESCE(c.generationStatus, 'NOT_GENERATED'), c.emailStatus, "
+            + "CASE WHEN c.id IS NOT NULL THEN p.updateEmailStatus END, c.errorMessage) ";
+
+    String STATUS_PROJECTION = STATUS_SELECT
+            + "FROM Participant p LEFT JOIN Certificate c ON c.participantId = p.id AND c.eventId = p.eventId "
+            + "WHERE p.eventId = :eventId "
+            + "AND (:status IS NULL OR c.generationStatus = :status OR c.emailStatus = :status "
+            + "OR (:status = 'NOT_GENERATED' AND c.id IS NULL)) ";
+
+    /**
+     * Participant/certificate status rows for an event in participant id order,
+     * starting after the given participant id (keyset pagination).
+     */
+    @Query(STATUS_PROJECTION + "AND p.id > :afterId ORDER BY p.id")
+    List<CertificateStatusDTO> findStatusPageById(@Param("eventId") Long eventId,
+            @Param("status") String status,
+            @Param("afterId") Long afterId,
+            Pageable pageable);
+
+    /**
+     * Same projection in (name, id) order, starting after the given name/id pair.
+     */
+    @Query(STATUS_PROJECTION + "AND (p.name > :afterName OR (p.name = :afterName AND p.id > :afterId)) "
+            + "ORDER BY p.name, p.id")
+    List<CertificateStatusDTO> findStatusPageByName(@Param("eventId") Long eventId,
+            @Param("status") String status,
+            @Param("afterName") String afterName,
+            @Param("afterId") Long afterId,
+            Pageable pageable);
 }
@@ -2,6 +2,9 @@ package com.certificate.repository;
 
 import com.certificate.entity.CollaborationRequest;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -22,4 +25,8 @@ public interface CollaborationRequestRepository extends JpaRepository<Collaborat
     List<CollaborationRequest> findByEventId(Long eventId);
 
     List<CollaborationRequest> findBySenderIdAndStatusNot(Long senderId, String status);
+
+    @Modifying
+    @Query("DELETE FROM CollaborationRequest r WHERE r.eventId = :eventId")
+    int deleteByEventId(@Param("eventId") Long eventId);
 }
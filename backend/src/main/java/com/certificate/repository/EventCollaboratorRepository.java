@@ -1,8 +1,13 @@
 package com.certificate.repository;
 
 import com.certificate.entity.EventCollaborator;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -15,12 +20,21 @@ public interface EventCollaboratorRepository extends JpaRepository<EventCollabor
 
     List<EventCollaborator> findByUserId(Long userId);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<EventCollaborator> findByEventIdAndUserId(Long eventId, Long userId);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     boolean existsByEventIdAndUserId(Long eventId, Long userId);
 
-    void deleteByEventIdAndUserId(Long eventId, Long userId);
+    @Modifying
+    @Query("DELETE FROM EventCollaborator ec WHERE ec.eventId = :eventId AND ec.userId = :userId")
+    int deleteByEventIdAndUserId(@Param("eventId") Long eventId, @Param("userId") Long userId);
 
+    @Modifying
+    @Query("DELETE FROM EventCollaborator ec WHERE ec.eventId = :eventId")
+    int deleteByEventId(@Param("eventId") Long eventId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT ec.eventId FROM EventCollaborator ec WHERE ec.userId = :userId")
     List<Long> findEventIdsByUserId(Long userId);
 }
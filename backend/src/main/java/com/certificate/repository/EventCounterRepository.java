@@ -0,0 +1,66 @@
+package com.certificate.repository;
+
+import com.certificate.entity.EventCounter;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface EventCounterRepository extends JpaRepository<EventCounter, Long> {
+
+    /**
+     * Apply signed deltas to an event's counters, creating the row on first use
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "event_counters"))
+    @Modifying
+    @Query(value = "INSERT INTO event_counters (event_id, participants, generated, generation_failed, "
+            + "emails_sent, emails_failed, emails_pending) "
+            + "VALUES (:eventId, :participants, :generated, :generationFailed, :emailsSent, :emailsFailed, :emailsPending) "
+            + "ON CONFLICT (event_id) DO UPDATE SET "
+            + "participants = event_counters.participants + EXCLUDED.participants, "
+            + "generated = event_counters.generated + EXCLUDED.generated, "
+            + "generation_failed = event_counters.generation_failed + EXCLUDED.generation_failed, "
+            + "emails_sent = event_counters.emails_sent + EXCLUDED.emails_sent, "
+            + "emails_failed = event_counters.emails_failed + EXCLUDED.emails_failed, "
+            + "emails_pending = event_counters.emails_pending + EXCLUDED.emails_pending", nativeQuery = true)
+    void addDeltas(@Param("eventId") Long eventId,
+            @Param("participants") long participants,
+            @Param("generated") long generated,
+            @Param("generationFailed") long generationFailed,
+            @Param("emailsSent") long emailsSent,
+            @Param("emailsFailed") long emailsFailed,
+            @Param("emailsPending") long emailsPending);
+
+    /**
+     * Recompute counters from the participants and certificates tables, either
+     * for one event or, with a null id, for every event
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "event_counters"))
+    @Modifying
+    @Query(value = "INSERT INTO event_counters (event_id, participants, generated, generation_failed, "
+            + "emails_sent, emails_failed, emails_pending) "
+            + "SELECT e.id, "
+            + "(SELECT COUNT(*) FROM participants p WHERE p.event_id = e.id), "
+            + "COUNT(c.id) FILTER (WHERE c.generation_status = 'GENERATED'), "
+            + "COUNT(c.id) FILTER (WHERE c.generation_status = 'FAILED'), "
+            + "COUNT(c.id) FILTER (WHERE c.email_status = 'SENT'), "
+            + "COUNT(c.id) FILTER (WHERE c.email_status = 'FAILED'), "
+            + "COUNT(c.id) FILTER (WHERE c.email_status = 'SENDING') "
+            + "FROM events e LEFT JOIN certificates c ON c.event_id = e.id "
+            + "WHERE CAST(:eventId AS BIGINT) IS NULL OR e.id = :eventId "
+            + "GROUP BY e.id "
+            + "ON CONFLICT (event_id) DO UPDATE SET "
+            + "participants = EXCLUDED.participants, generated = EXCLUDED.generated, "
+            + "generation_failed = EXCLUDED.generation_failed, emails_sent = EXCLUDED.emails_sent, "
+            + "emails_failed = EXCLUDED.emails_failed, emails_pending = EXCLUDED.emails_pending", nativeQuery = true)
+    int rebuild(@Param("eventId") Long eventId);
+
+    @Modifying
+    @Query("DELETE FROM EventCounter ec WHERE ec.eventId = :eventId")
+    int deleteByEventId(@Param("eventId") Long eventId);
+}
@@ -1,7 +1,11 @@
 package com.certificate.repository;
 
 import com.certificate.entity.EventLog;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -13,4 +17,11 @@ public interface EventLogRepository extends JpaRepository<EventLog, Long> {
     List<EventLog> findByEventIdAndUserIdOrderByTimestampDesc(Long eventId, Long userId);
 
     List<EventLog> findByEventIdInOrderByTimestampDesc(List<Long> eventIds);
+
+    List<EventLog> findByEventIdInAndUserIdNotOrderByTimestampDesc(List<Long> eventIds, Long userId,
+            Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM EventLog l WHERE l.eventId = :eventId")
+    int deleteByEventId(@Param("eventId") Long eventId);
 }
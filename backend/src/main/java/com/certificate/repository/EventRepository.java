@@ -1,14 +1,30 @@
 package com.certificate.repository;
 
 import com.certificate.entity.Event;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface EventRepository extends JpaRepository<Event, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Event> findByOrganizerId(Long organizerId);
 
     long countByOrganizerId(Long organizerId);
+
+    /**
+     * Rows of [monthStart, eventCount] for events an organizer created since the given time
+     */
+    @Query(value = "SELECT CAST(date_trunc('month', created_at) AS DATE) AS month_start, COUNT(*) "
+            + "FROM events WHERE organizer_id = :organizerId AND created_at >= :from "
+            + "GROUP BY CAST(date_trunc('month', created_at) AS DATE)", nativeQuery = true)
+    List<Object[]> countMonthlyByOrganizerId(@Param("organizerId") Long organizerId,
+            @Param("from") LocalDateTime from);
 }
@@ -19,4 +19,25 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
     List<Message> findByReceiverIdAndIsReadFalse(Long receiverId);
 
     List<Message> findByEventIdAndReceiverIdAndIsReadFalse(Long eventId, Long receiverId);
+
+    long countByReceiverIdAndIsReadFalse(Long receiverId);
+
+    /**
+     * Rows of [receiverId, unreadCount] for every user with unread messages
+     */
+    @org.springframework.data.jpa.repository.Query("SELECT m.receiverId, COUNT(m) FROM Message m WHERE m.isRead = false GROUP BY m.receiverId")
+    List<Object[]> countUnreadGroupedByReceiver();
+
+    @org.springframework.data.jpa.repository.Query("SELECT m.receiverId, COUNT(m) FROM Message m WHERE m.eventId = :eventId AND m.isRead = false GROUP BY m.receiverId")
+    List<Object[]> countUnreadByEventIdGroupedByReceiver(
+            @org.springframework.data.repository.query.Param("eventId") Long eventId);
+
+    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.data.jpa.repository.Query("UPDATE Message m SET m.isRead = true WHERE m.eventId = :eventId AND m.receiverId = :receiverId AND m.isRead = false")
+    int markReadByEventIdAndReceiverId(@org.springframework.data.repository.query.Param("eventId") Long eventId,
+            @org.springframework.data.repository.query.Param("receiverId") Long receiverId);
+
+    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.data.jpa.repository.Query("DELETE FROM Message m WHERE m.eventId = :eventId")
+    int deleteByEventId(@org.springframework.data.repository.query.Param("eventId") Long eventId);
 }
@@ -1,17 +1,24 @@
 package com.certificate.repository;
 
 import com.certificate.entity.Organizer;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface OrganizerRepository extends JpaRepository<Organizer, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Organizer> findByEmail(String email);
 
     boolean existsByEmail(String email);
 
     List<Organizer> findByEmailContainingIgnoreCase(String email);
+
+    List<Organizer> findByEmailIn(Collection<String> emails);
 }
@@ -2,6 +2,9 @@ package com.certificate.repository;
 
 import com.certificate.entity.Participant;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,5 +15,7 @@ public interface ParticipantRepository extends JpaRepository<Participant, Long>
 
     java.util.Optional<Participant> findByEventIdAndEmail(Long eventId, String email);
 
-    void deleteByEventId(Long eventId);
+    @Modifying
+    @Query("DELETE FROM Participant p WHERE p.eventId = :eventId")
+    int deleteByEventId(@Param("eventId") Long eventId);
 }
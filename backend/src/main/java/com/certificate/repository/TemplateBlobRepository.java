@@ -0,0 +1,25 @@
+package com.certificate.repository;
+
+import com.certificate.entity.TemplateBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TemplateBlobRepository extends JpaRepository<TemplateBlob, String> {
+
+    @Query("SELECT b.flattenedData FROM TemplateBlob b WHERE b.hash = :hash")
+    byte[] findFlattenedDataByHash(@Param("hash") String hash);
+
+    /**
+     * Delete a blob no template uses any more. Blobs that issued certificates
+     * were rendered with are kept, so their previews still match the PDF.
+     */
+    @Modifying
+    @Query("DELETE FROM TemplateBlob b WHERE b.hash = :hash "
+            + "AND NOT EXISTS (SELECT t.id FROM Template t WHERE t.imageHash = :hash) "
+            + "AND NOT EXISTS (SELECT c.id FROM Certificate c WHERE c.templateHash = :hash)")
+    int deleteIfUnreferenced(@Param("hash") String hash);
+}
@@ -1,14 +1,29 @@
 package com.certificate.repository;
 
 import com.certificate.entity.Template;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TemplateRepository extends JpaRepository<Template, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Template> findByEventId(Long eventId);
 
     Optional<Template> findByIsDefaultTrue();
+
+    @Query("SELECT t.imageHash FROM Template t WHERE t.eventId = :eventId")
+    List<String> findImageHashesByEventId(@Param("eventId") Long eventId);
+
+    @Modifying
+    @Query("DELETE FROM Template t WHERE t.eventId = :eventId")
+    int deleteByEventId(@Param("eventId") Long eventId);
 }
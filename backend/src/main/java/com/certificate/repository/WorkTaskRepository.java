@@ -0,0 +1,72 @@
+package com.certificate.repository;
+
+import com.certificate.entity.WorkTask;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface WorkTaskRepository extends JpaRepository<WorkTask, Long> {
+
+    /**
+     * Lock up to limit claimable tasks (pending, or claimed with an expired
+     * lease), oldest first. Rows locked by another node's claim are skipped
+     * rather than waited for, so concurrent nodes get disjoint batches. Leases
+     * are set and compared on the database clock, so node clock skew does not matter.
+     */
+    @Query(value = "SELECT id FROM work_tasks "
+            + "WHERE status = 'PENDING' OR (status = 'CLAIMED' AND lease_until < now()) "
+            + "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockClaimable(@Param("limit") int limit);
+
+    /**
+     * Set (or extend) the lease of a task this node holds to the given number
+     * of seconds from now on the database clock
+     *
+     * @return 0 if the node no longer holds the claim
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE work_tasks SET lease_until = now() + :seconds * interval '1 second' "
+            + "WHERE id = :id AND status = 'CLAIMED' AND claimed_by = :node", nativeQuery = true)
+    int renewLease(@Param("id") Long id, @Param("node") String node, @Param("seconds") long seconds);
+
+    /**
+     * Finish a task, but only while this node still holds its claim
+     */
+    @Modifying
+    @Query("UPDATE WorkTask t SET t.status = :status, t.lastError = :error, t.leaseUntil = NULL, "
+            + "t.updatedAt = CURRENT_TIMESTAMP WHERE t.id = :id AND t.status = 'CLAIMED' AND t.claimedBy = :node")
+    int finish(@Param("id") Long id, @Param("node") String node, @Param("status") String status,
+            @Param("error") String error);
+
+    /**
+     * Hand a claimed task back to the queue without counting the attempt
+     */
+    @Modifying
+    @Query("UPDATE WorkTask t SET t.status = 'PENDING', t.claimedBy = NULL, t.leaseUntil = NULL, "
+            + "t.attempts = t.attempts - 1, t.updatedAt = CURRENT_TIMESTAMP "
+            + "WHERE t.id = :id AND t.status = 'CLAIMED' AND t.claimedBy = :node")
+    int release(@Param("id") Long id, @Param("node") String node);
+
+    /**
+     * Record one item of a task as done. Not fenced on the claim: the item was
+     * done either way, and whichever node runs the task next must skip it.
+     */
+    @Modifying
+    @Query("UPDATE WorkTask t SET t.doneItemIds = CONCAT(COALESCE(t.doneItemIds, ''), :item, ',') "
+            + "WHERE t.id = :id")
+    int markItemDone(@Param("id") Long id, @Param("item") String item);
+
+    @Modifying
+    @Query("DELETE FROM WorkTask t WHERE t.status IN ('DONE', 'FAILED') AND t.updatedAt < :before")
+    int deleteFinishedBefore(@Param("before") LocalDateTime before);
+
+    @Modifying
+    @Query("DELETE FROM WorkTask t WHERE t.eventId = :eventId")
+    int deleteByEventId(@Param("eventId") Long eventId);
+}
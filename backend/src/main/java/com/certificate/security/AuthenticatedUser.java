@@ -0,0 +1,15 @@
+package com.certificate.security;
+
+import java.security.Principal;
+
+/**
+ * Principal built from verified JWT claims. getName() returns the email, so
+ * existing {@code authentication.getName()} callers are unaffected.
+ */
+public record AuthenticatedUser(Long id, String email) implements Principal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
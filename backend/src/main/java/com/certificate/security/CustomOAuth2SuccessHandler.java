@@ -2,6 +2,7 @@ package com.certificate.security;
 
 import com.certificate.entity.Organizer;
 import com.certificate.repository.OrganizerRepository;
+import com.certificate.service.OrganizerIdentityCache;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -20,6 +21,7 @@ public class CustomOAuth2SuccessHandler implements AuthenticationSuccessHandler
 
     private final OrganizerRepository organizerRepository;
     private final JwtUtil jwtUtil;
+    private final OrganizerIdentityCache identityCache;
 
     @Override
     public void onAuthenticationSuccess(HttpServletRequest request, HttpServletResponse response,
@@ -42,9 +44,10 @@ public class CustomOAuth2SuccessHandler implements AuthenticationSuccessHandler
             organizer.setPassword(""); // No password for OAuth users
             organizer.setInstituteName("Google Account"); // Default to generic or nullable
             organizerRepository.save(organizer);
+            identityCache.put(organizer);
         }
 
-        String token = jwtUtil.generateToken(email);
+        String token = jwtUtil.generateToken(email, organizer.getId());
 
         // Redirect to frontend with token and user info
         String redirectUrl = String.format("http://localhost:5173/oauth/callback?token=%s&fullName=%s&email=%s&id=%s",
@@ -2,6 +2,7 @@ package com.certificate.security;
 
 import com.certificate.entity.Organizer;
 import com.certificate.repository.OrganizerRepository;
+import com.certificate.service.OrganizerIdentityCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -16,6 +17,7 @@ import java.util.ArrayList;
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final OrganizerRepository organizerRepository;
+    private final OrganizerIdentityCache identityCache;
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
@@ -24,4 +26,14 @@ public class CustomUserDetailsService implements UserDetailsService {
 
         return new User(organizer.getEmail(), organizer.getPassword(), new ArrayList<>());
     }
+
+    /**
+     * Id of the user with this email, or null if no such user exists. Served from
+     * the shared identity cache so per-request checks rarely reach the database.
+     */
+    public Long resolveUserId(String email) {
+        return identityCache.findByEmail(email)
+                .map(OrganizerIdentityCache.Identity::id)
+                .orElse(null);
+    }
 }
@@ -1,51 +1,75 @@
 package com.certificate.security;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collections;
 
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final String STREAM_PATH = "/collaboration/messages/stream";
+
     private final JwtUtil jwtUtil;
     private final CustomUserDetailsService userDetailsService;
 
+    // When enabled, every request also confirms the user still exists (cache-backed)
+    @Value("${jwt.verify-user:false}")
+    private boolean verifyUser;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
         String authHeader = request.getHeader("Authorization");
         String token = null;
-        String email = null;
+        boolean streamRequest = false;
 
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             token = authHeader.substring(7);
-            try {
-                email = jwtUtil.extractEmail(token);
-            } catch (Exception e) {
-                logger.error("JWT token parsing failed", e);
-            }
+        } else if (STREAM_PATH.equals(request.getServletPath())) {
+            // EventSource cannot set headers, so the stream takes a short-lived stream ticket as a query parameter
+            token = request.getParameter("ticket");
+            streamRequest = true;
         }
 
-        if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+        if (token != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            try {
+                // One verification pass: signature and expiry are both checked here
+                Claims claims = jwtUtil.parseToken(token);
+                if (jwtUtil.isStreamTicket(claims) != streamRequest) {
+                    // Login tokens never go in URLs, and stream tickets open nothing but the stream
+                    throw new IllegalArgumentException("Token not valid for this request");
+                }
+                String email = claims.getSubject();
+                Long userId = jwtUtil.getUserId(claims);
+
+                // Tokens issued before the user id claim existed fall back to a lookup
+                if (email != null && (userId == null || verifyUser)) {
+                    userId = userDetailsService.resolveUserId(email);
+                }
 
-            if (jwtUtil.validateToken(token, email)) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(userDetails,
-                        null, userDetails.getAuthorities());
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+                if (email != null && userId != null) {
+                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                            new AuthenticatedUser(userId, email), null, Collections.emptyList());
+                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                }
+            } catch (JwtException | IllegalArgumentException e) {
+                logger.error("JWT token parsing failed", e);
             }
         }
 
@@ -1,9 +1,11 @@
 package com.certificate.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -15,52 +17,82 @@ import java.util.Map;
 @Component
 public class JwtUtil {
 
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String SCOPE_CLAIM = "scope";
+    private static final String STREAM_SCOPE = "stream";
+
     @Value("${jwt.secret}")
     private String secret;
 
     @Value("${jwt.expiration}")
     private Long expiration;
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    @Value("${jwt.stream-ticket-expiration:60000}")
+    private Long streamTicketExpiration;
+
+    // Built once; both are immutable and thread-safe
+    private Key signingKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
+
+    public String generateToken(String email, Long userId) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(USER_ID_CLAIM, userId);
+        return createToken(claims, email, expiration);
     }
 
-    public String generateToken(String email) {
+    /**
+     * Short-lived token that only opens the message event stream. EventSource
+     * cannot send headers, so it travels in the URL; unlike the login token it
+     * is useless once expired and is not accepted anywhere else.
+     */
+    public String generateStreamTicket(String email, Long userId) {
         Map<String, Object> claims = new HashMap<>();
-        return createToken(claims, email);
+        claims.put(USER_ID_CLAIM, userId);
+        claims.put(SCOPE_CLAIM, STREAM_SCOPE);
+        return createToken(claims, email, streamTicketExpiration);
     }
 
-    private String createToken(Map<String, Object> claims, String subject) {
+    private String createToken(Map<String, Object> claims, String subject, long validity) {
         Date now = new Date();
-        Date exp = new Date(now.getTime() + expiration);
+        Date exp = new Date(now.getTime() + validity);
 
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
                 .setIssuedAt(now)
                 .setExpiration(exp)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public String extractEmail(String token) {
-        return extractClaims(token).getSubject();
-    }
-
-    private Claims extractClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * Verify signature and expiry in a single parse and return the claims.
+     * Throws a JwtException if the token is invalid or expired.
+     */
+    public Claims parseToken(String token) {
+        return parser.parseClaimsJws(token).getBody();
     }
 
-    public boolean validateToken(String token, String email) {
-        String extractedEmail = extractEmail(token);
-        return (extractedEmail.equals(email) && !isTokenExpired(token));
+    /**
+     * Whether the claims belong to a stream ticket rather than a login token
+     */
+    public boolean isStreamTicket(Claims claims) {
+        return STREAM_SCOPE.equals(claims.get(SCOPE_CLAIM));
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractClaims(token).getExpiration().before(new Date());
+    /**
+     * User id embedded at login, or null for tokens issued before it was added
+     */
+    public Long getUserId(Claims claims) {
+        Object value = claims.get(USER_ID_CLAIM);
+        return value instanceof Number number ? number.longValue() : null;
     }
 }
@@ -0,0 +1,137 @@
+package com.certificate.security;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Compact signed payloads for certificate QR codes.
+ *
+ * A token is {@code base64url(payload) + "." + base64url(mac)} where payload is,
+ * big-endian: version (1 byte, 2), verification id (16-byte UUID), event id
+ * (8 bytes), issue date (epoch day, 4 bytes), participant name length (unsigned,
+ * 2 bytes) and the participant name in standard UTF-8; mac is the first 16
+ * bytes of HMAC-SHA256 over the encoded payload. Anyone holding the key can
+ * check authenticity without a database; revocation still needs the
+ * verification id. Version 1 tokens (name in Java's modified UTF-8) are still
+ * accepted.
+ */
+@Component
+public class VerificationTokenUtil {
+
+    public record Payload(String verificationId, Long eventId, String participantName, LocalDate issuedOn) {
+    }
+
+    private static final byte VERSION = 2;
+    private static final byte LEGACY_VERSION = 1;
+    private static final int MAC_LENGTH = 16;
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    @Value("${app.verification.token-secret:${jwt.secret}}")
+    private String secret;
+
+    private SecretKeySpec key;
+
+    @PostConstruct
+    void init() throws GeneralSecurityException {
+        // Derive a dedicated key so QR tokens and JWTs never share one, even when
+        // the secret falls back to jwt.secret
+        Mac derive = Mac.getInstance(ALGORITHM);
+        derive.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM));
+        key = new SecretKeySpec(derive.doFinal("certificate-qr-v1".getBytes(StandardCharsets.UTF_8)), ALGORITHM);
+    }
+
+    public String sign(String verificationId, Long eventId, String participantName, LocalDate issuedOn) {
+        UUID id = UUID.fromString(verificationId);
+        byte[] name = (participantName != null ? participantName : "").getBytes(StandardCharsets.UTF_8);
+        if (name.length > 0xFFFF) {
+            throw new IllegalArgumentException("Participant name is too long for a verification token");
+        }
+        byte[] payload = ByteBuffer.allocate(1 + 16 + 8 + 4 + 2 + name.length)
+                .put(VERSION)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .putLong(eventId)
+                .putInt((int) issuedOn.toEpochDay())
+                .putShort((short) name.length)
+                .put(name)
+                .array();
+        return ENCODER.encodeToString(payload) + "." + ENCODER.encodeToString(mac(payload));
+    }
+
+    /**
+     * Decoded payload if the token is well formed and its signature matches,
+     * otherwise empty
+     */
+    public Optional<Payload> verify(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot != token.lastIndexOf('.')) {
+            return Optional.empty();
+        }
+        try {
+            byte[] payload = DECODER.decode(token.substring(0, dot));
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(mac(payload), signature)) {
+                return Optional.empty();
+            }
+
+            ByteBuffer in = ByteBuffer.wrap(payload);
+            byte version = in.get();
+            if (version != VERSION && version != LEGACY_VERSION) {
+                return Optional.empty();
+            }
+            UUID id = new UUID(in.getLong(), in.getLong());
+            long eventId = in.getLong();
+            LocalDate issuedOn = LocalDate.ofEpochDay(in.getInt());
+            String name;
+            if (version == LEGACY_VERSION) {
+                name = new DataInputStream(new ByteArrayInputStream(payload, in.position(), in.remaining()))
+                        .readUTF();
+            } else {
+                byte[] nameBytes = new byte[Short.toUnsignedInt(in.getShort())];
+                in.get(nameBytes);
+                if (in.hasRemaining()) {
+                    return Optional.empty();
+                }
+                name = new String(nameBytes, StandardCharsets.UTF_8);
+            }
+            return Optional.of(new Payload(id.toString(), eventId, name, issuedOn));
+        } catch (IllegalArgumentException | BufferUnderflowException | IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    public static boolean isToken(String value) {
+        return value != null && value.indexOf('.') > 0;
+    }
+
+    private byte[] mac(byte[] payload) {
+        try {
+            // Mac instances are not thread-safe; creating one per call is cheap
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return Arrays.copyOf(mac.doFinal(payload), MAC_LENGTH);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 not available", e);
+        }
+    }
+}
@@ -1,97 +1,146 @@
 package com.certificate.service;
 
-import com.certificate.entity.Certificate;
-import com.certificate.entity.Event;
-import com.certificate.entity.Organizer;
+import com.certificate.repository.CertificateMonthlyStatRepository;
 import com.certificate.repository.CertificateRepository;
 import com.certificate.repository.EventRepository;
+import com.certificate.service.OrganizerIdentityCache.Identity;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.format.TextStyle;
 import java.util.*;
-import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class AnalyticsService {
 
+    private static final int MONTHS_SHOWN = 6;
+
     private final EventRepository eventRepository;
     private final CertificateRepository certificateRepository;
+    private final CertificateMonthlyStatRepository monthlyStatRepository;
     private final AuthService authService;
 
     public Map<String, Object> getStats(String email) {
-        Organizer organizer = authService.getOrganizerByEmail(email);
-        Long organizerId = organizer.getId();
-
-        List<Event> events = eventRepository.findByOrganizerId(organizerId);
-        List<Long> eventIds = events.stream().map(Event::getId).collect(Collectors.toList());
-
-        long eventCount = events.size();
-        long certificateCount = 0;
-        List<Certificate> certificates = new ArrayList<>();
+        Identity organizer = authService.getIdentityByEmail(email);
+        Long organizerId = organizer.id();
 
-        if (!eventIds.isEmpty()) {
-            certificates = certificateRepository.findByEventIdIn(eventIds);
-            certificateCount = certificates.size();
-        }
+        long eventCount = eventRepository.countByOrganizerId(organizerId);
+        long certificateCount = monthlyStatRepository.sumByOrganizerId(organizerId);
 
         Map<String, Object> stats = new HashMap<>();
         stats.put("totalEvents", eventCount);
         stats.put("totalCertificates", certificateCount);
 
         // Calculate monthly distribution
-        List<Map<String, Object>> monthlyData = calculateMonthlyData(events, certificates);
+        List<Map<String, Object>> monthlyData = calculateMonthlyData(organizerId);
         stats.put("monthlyData", monthlyData);
 
         return stats;
     }
 
-    private List<Map<String, Object>> calculateMonthlyData(List<Event> events, List<Certificate> certificates) {
-        // Group by month name (Jan, Feb, ...)
-        Map<String, Map<String, Integer>> distribution = new LinkedHashMap<>();
-
-        // Initialize last 6 months to ensure we have some data points even if zero
-        Calendar cal = Calendar.getInstance();
-        for (int i = 5; i >= 0; i--) {
-            Calendar mCal = (Calendar) cal.clone();
-            mCal.add(Calendar.MONTH, -i);
-            String monthName = mCal.getDisplayName(Calendar.MONTH, Calendar.SHORT, Locale.ENGLISH);
-            Map<String, Integer> counts = new HashMap<>();
-            counts.put("events", 0);
-            counts.put("certs", 0);
-            distribution.put(monthName, counts);
+    /**
+     * Record newly created certificates in the monthly rollup
+     */
+    @Transactional
+    public void recordCertificatesCreated(Long eventId, LocalDateTime createdAt, long count) {
+        if (count <= 0) {
+            return;
+        }
+        monthlyStatRepository.addToCount(eventId, monthStart(createdAt), count);
+    }
+
+    /**
+     * Remove a deleted certificate from the monthly rollup
+     */
+    @Transactional
+    public void recordCertificateDeleted(Long eventId, LocalDateTime createdAt) {
+        if (createdAt == null) {
+            return;
+        }
+        monthlyStatRepository.addToCount(eventId, monthStart(createdAt), -1);
+    }
+
+    /**
+     * Seed the rollup from the certificates table the first time the application
+     * starts with it empty (e.g. right after upgrading).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuildRollupIfEmpty() {
+        try {
+            if (monthlyStatRepository.count() == 0 && certificateRepository.count() > 0) {
+                int rows = monthlyStatRepository.rebuildFromCertificates();
+                log.info("Rebuilt certificate monthly rollup ({} rows)", rows);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to rebuild certificate monthly rollup: {}", e.getMessage());
+        }
+    }
+
+    private List<Map<String, Object>> calculateMonthlyData(Long organizerId) {
+        // Last 6 months, oldest first, so the chart has data points even if zero
+        YearMonth current = YearMonth.now();
+        YearMonth first = current.minusMonths(MONTHS_SHOWN - 1);
+        Map<YearMonth, long[]> distribution = new LinkedHashMap<>();
+        for (int i = 0; i < MONTHS_SHOWN; i++) {
+            distribution.put(first.plusMonths(i), new long[2]);
         }
 
-        // Fill with real data
-        for (Event event : events) {
-            if (event.getCreatedAt() != null) {
-                String month = event.getCreatedAt().getMonth().getDisplayName(TextStyle.SHORT, Locale.ENGLISH);
-                if (distribution.containsKey(month)) {
-                    distribution.get(month).put("events", distribution.get(month).get("events") + 1);
-                }
+        // Fill with real data aggregated in the database
+        for (Object[] row : eventRepository.countMonthlyByOrganizerId(organizerId,
+                first.atDay(1).atStartOfDay())) {
+            long[] counts = distribution.get(YearMonth.from(toLocalDate(row[0])));
+            if (counts != null) {
+                counts[0] += ((Number) row[1]).longValue();
             }
         }
 
-        for (Certificate cert : certificates) {
-            if (cert.getCreatedAt() != null) {
-                String month = cert.getCreatedAt().getMonth().getDisplayName(TextStyle.SHORT, Locale.ENGLISH);
-                if (distribution.containsKey(month)) {
-                    distribution.get(month).put("certs", distribution.get(month).get("certs") + 1);
-                }
+        for (Object[] row : monthlyStatRepository.sumMonthlyByOrganizerId(organizerId, first.atDay(1))) {
+            long[] counts = distribution.get(YearMonth.from(toLocalDate(row[0])));
+            if (counts != null) {
+                counts[1] += ((Number) row[1]).longValue();
             }
         }
 
         // Convert to list for frontend
         List<Map<String, Object>> result = new ArrayList<>();
-        for (Map.Entry<String, Map<String, Integer>> entry : distribution.entrySet()) {
+        for (Map.Entry<YearMonth, long[]> entry : distribution.entrySet()) {
             Map<String, Object> item = new HashMap<>();
-            item.put("name", entry.getKey());
-            item.put("events", entry.getValue().get("events"));
-            item.put("certs", entry.getValue().get("certs"));
+            item.put("name", entry.getKey().getMonth().getDisplayName(TextStyle.SHORT, Locale.ENGLISH));
+            item.put("events", entry.getValue()[0]);
+            item.put("certs", entry.getValue()[1]);
             result.add(item);
         }
 
         return result;
     }
+
+    private static LocalDate monthStart(LocalDateTime dateTime) {
+        return (dateTime != null ? dateTime.toLocalDate() : LocalDate.now()).withDayOfMonth(1);
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof LocalDate localDate) {
+            return localDate;
+        }
+        if (value instanceof java.sql.Date sqlDate) {
+            return sqlDate.toLocalDate();
+        }
+        if (value instanceof java.sql.Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toLocalDate();
+        }
+        if (value instanceof LocalDateTime localDateTime) {
+            return localDateTime.toLocalDate();
+        }
+        return LocalDate.parse(value.toString().substring(0, 10));
+    }
 }
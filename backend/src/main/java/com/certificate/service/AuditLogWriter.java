@@ -0,0 +1,230 @@
+package com.certificate.service;
+
+import com.certificate.entity.Event;
+import com.certificate.repository.EventRepository;
+import com.certificate.service.OrganizerIdentityCache.Identity;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes event audit logs off the request path. Entries are queued (after the
+ * caller's transaction commits, so rolled-back work is not logged) and a single
+ * background thread resolves the users and batch-inserts them every flush
+ * interval. If the queue is full the entry is written inline instead of being
+ * dropped; on shutdown the queue is drained before the thread exits. A failed
+ * batch is retried row by row, so one bad entry does not take the rest with it;
+ * entries that failed for another reason than their own data are requeued.
+ * Owners of the events in a written batch are told over their message stream,
+ * so their activity feed updates without polling.
+ */
+@Slf4j
+@Component
+public class AuditLogWriter {
+
+    private static final String INSERT_SQL = "INSERT INTO event_logs (event_id, user_id, action, details, timestamp) "
+            + "VALUES (?, ?, ?, ?, ?)";
+
+    private record PendingLog(Long eventId, String userEmail, String action, String details,
+            LocalDateTime timestamp, int attempts) {
+
+        PendingLog retried() {
+            return new PendingLog(eventId, userEmail, action, details, timestamp, attempts + 1);
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final OrganizerIdentityCache identityCache;
+    private final EventRepository eventRepository;
+    private final MessageNotificationService notificationService;
+    private final BlockingQueue<PendingLog> queue;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final int maxAttempts;
+
+    private volatile boolean running = true;
+    private Thread writer;
+
+    public AuditLogWriter(JdbcTemplate jdbcTemplate, OrganizerIdentityCache identityCache,
+            EventRepository eventRepository, MessageNotificationService notificationService,
+            @Value("${app.audit.queue-capacity:10000}") int queueCapacity,
+            @Value("${app.audit.batch-size:500}") int batchSize,
+            @Value("${app.audit.flush-interval-ms:250}") long flushIntervalMillis,
+            @Value("${app.audit.max-attempts:5}") int maxAttempts) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.identityCache = identityCache;
+        this.eventRepository = eventRepository;
+        this.notificationService = notificationService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.maxAttempts = maxAttempts;
+    }
+
+    @PostConstruct
+    void start() {
+        writer = new Thread(this::run, "AuditLogWriter");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queue an audit entry; it is written once the current transaction (if any) commits
+     */
+    public void submit(Long eventId, String userEmail, String action, String details) {
+        PendingLog entry = new PendingLog(eventId, userEmail, action, details, LocalDateTime.now(), 0);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(entry);
+                }
+            });
+        } else {
+            enqueue(entry);
+        }
+    }
+
+    private void enqueue(PendingLog entry) {
+        if (!running || !queue.offer(entry)) {
+            log.warn("Audit log queue full or stopped, writing inline");
+            if (!write(List.of(entry)).isEmpty()) {
+                log.error("Audit log entry {} for event {} was not written", entry.action(), entry.eventId());
+            }
+        }
+    }
+
+    private void run() {
+        List<PendingLog> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingLog first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                List<PendingLog> failed = write(batch);
+                notifyOwners(batch);
+                if (!failed.isEmpty()) {
+                    requeue(failed);
+                    // Give the database a moment before the requeued entries come round again
+                    TimeUnit.MILLISECONDS.sleep(flushIntervalMillis);
+                }
+            } catch (InterruptedException e) {
+                // Shutdown requested; the loop condition drains what is left
+                running = false;
+            } catch (Exception e) {
+                log.error("Failed to write {} audit log entries", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Insert a batch, falling back to one insert per row if the batch fails
+     *
+     * @return the entries that were not written but are worth another attempt
+     */
+    private List<PendingLog> write(List<PendingLog> batch) {
+        Set<String> emails = new HashSet<>();
+        batch.forEach(entry -> emails.add(entry.userEmail()));
+        Map<String, Identity> users;
+        try {
+            users = identityCache.findAllByEmail(emails);
+        } catch (DataAccessException e) {
+            log.warn("Failed to resolve users for {} audit log entries: {}", batch.size(), e.getMessage());
+            return new ArrayList<>(batch);
+        }
+
+        List<PendingLog> entries = new ArrayList<>(batch.size());
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (PendingLog entry : batch) {
+            Identity user = users.get(entry.userEmail());
+            if (user == null) {
+                continue;
+            }
+            entries.add(entry);
+            rows.add(new Object[] { entry.eventId(), user.id(), entry.action(), entry.details(),
+                    Timestamp.valueOf(entry.timestamp()) });
+        }
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+            return List.of();
+        } catch (DataAccessException e) {
+            log.warn("Audit log batch of {} entries failed, writing them one by one: {}", rows.size(),
+                    e.getMessage());
+        }
+
+        List<PendingLog> failed = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            try {
+                jdbcTemplate.update(INSERT_SQL, rows.get(i));
+            } catch (DataIntegrityViolationException e) {
+                // The entry itself is bad (e.g. its event was deleted); retrying will not help
+                log.error("Dropping audit log entry {} for event {}: {}", entries.get(i).action(),
+                        entries.get(i).eventId(), e.getMessage());
+            } catch (DataAccessException e) {
+                // Not this row's fault: keep it and the rest for the next attempt
+                log.warn("Audit log insert failed, requeueing {} entries: {}", rows.size() - i, e.getMessage());
+                failed.addAll(entries.subList(i, entries.size()));
+                break;
+            }
+        }
+        return failed;
+    }
+
+    private void notifyOwners(List<PendingLog> batch) {
+        Set<Long> eventIds = new HashSet<>();
+        batch.forEach(entry -> eventIds.add(entry.eventId()));
+        try {
+            for (Event event : eventRepository.findAllById(eventIds)) {
+                notificationService.activityChanged(event.getOrganizerId());
+            }
+        } catch (DataAccessException e) {
+            log.debug("Failed to notify event owners of new activity: {}", e.getMessage());
+        }
+    }
+
+    private void requeue(List<PendingLog> failed) {
+        int lost = 0;
+        for (PendingLog entry : failed) {
+            if (entry.attempts() + 1 >= maxAttempts || !queue.offer(entry.retried())) {
+                lost++;
+            }
+        }
+        if (lost > 0) {
+            log.error("{} audit log entries were not written after {} attempts or did not fit the queue", lost,
+                    maxAttempts);
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        // The writer notices within one flush interval and drains the queue before exiting
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        if (!queue.isEmpty()) {
+            log.warn("{} audit log entries were not written before shutdown", queue.size());
+        }
+    }
+}
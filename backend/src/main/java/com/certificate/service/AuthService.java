@@ -6,6 +6,7 @@ import com.certificate.dto.RegisterRequest;
 import com.certificate.entity.Organizer;
 import com.certificate.repository.OrganizerRepository;
 import com.certificate.security.JwtUtil;
+import com.certificate.service.OrganizerIdentityCache.Identity;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -20,6 +21,7 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authenticationManager;
+    private final OrganizerIdentityCache identityCache;
 
     public AuthResponse register(RegisterRequest request) {
         if (organizerRepository.existsByEmail(request.getEmail())) {
@@ -33,8 +35,10 @@ public class AuthService {
         organizer.setInstituteName(request.getInstituteName());
 
         organizerRepository.save(organizer);
+        identityCache.invalidate(organizer.getId(), organizer.getEmail());
+        identityCache.put(organizer);
 
-        String token = jwtUtil.generateToken(organizer.getEmail());
+        String token = jwtUtil.generateToken(organizer.getEmail(), organizer.getId());
 
         return new AuthResponse(organizer.getId(), token, organizer.getEmail(), organizer.getFullName(),
                 "Registration successful");
@@ -47,12 +51,27 @@ public class AuthService {
         Organizer organizer = organizerRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        String token = jwtUtil.generateToken(organizer.getEmail());
+        String token = jwtUtil.generateToken(organizer.getEmail(), organizer.getId());
 
         return new AuthResponse(organizer.getId(), token, organizer.getEmail(), organizer.getFullName(),
                 "Login successful");
     }
 
+    /**
+     * Ticket for opening the message event stream, see {@link JwtUtil#generateStreamTicket}
+     */
+    public String issueStreamTicket(String email) {
+        return jwtUtil.generateStreamTicket(email, getIdentityByEmail(email).id());
+    }
+
+    /**
+     * Id, email and name of an organizer, served from the shared identity cache
+     */
+    public Identity getIdentityByEmail(String email) {
+        return identityCache.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("Organizer not found"));
+    }
+
     public Organizer getOrganizerByEmail(String email) {
         return organizerRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("Organizer not found"));
@@ -0,0 +1,44 @@
+package com.certificate.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * Removes certificate files from storage in the background after their rows
+ * have been deleted.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CertificateFileCleanupService {
+
+    private final CertificateStore certificateStore;
+
+    /**
+     * Delete the given storage keys. Only the listed files are touched; the
+     * store removes a folder once its last file is gone.
+     */
+    @Async("maintenanceExecutor")
+    public void deleteFilesAsync(Collection<String> filePaths) {
+        if (filePaths == null || filePaths.isEmpty()) {
+            return;
+        }
+
+        int deleted = 0;
+        for (String key : filePaths) {
+            try {
+                certificateStore.delete(key);
+                deleted++;
+            } catch (IOException e) {
+                log.warn("Failed to delete certificate file {}: {}", key, e.getMessage());
+            }
+        }
+
+        log.info("Cleaned up {} certificate files", deleted);
+    }
+}
@@ -0,0 +1,230 @@
+package com.certificate.service;
+
+import com.certificate.entity.Certificate;
+import com.certificate.entity.Event;
+import com.certificate.entity.Participant;
+import com.certificate.repository.CertificateRepository;
+import com.certificate.repository.EventRepository;
+import com.certificate.repository.ParticipantRepository;
+import com.certificate.security.VerificationTokenUtil;
+import com.certificate.service.PngCertificateGenerator.ImageEncoding;
+import com.certificate.util.ByteSizeLruCache;
+import com.certificate.util.QRCodeGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Renders certificate PDFs and serves their bytes. A certificate whose file is
+ * not in the store yet (lazy generation) is rendered on first access and
+ * written back; recently served PDFs are kept in a size-bounded LRU cache so
+ * back-to-back downloads and sends do not hit the store or re-render. File
+ * keys contain the verification id, so a cached PDF never outlives the
+ * certificate it was rendered for and needs no expiry.
+ */
+@Slf4j
+@Component
+public class CertificateRenderer {
+
+    private final ParticipantRepository participantRepository;
+    private final CertificateRepository certificateRepository;
+    private final EventRepository eventRepository;
+    private final TemplateService templateService;
+    private final PngCertificateGenerator pngGenerator;
+    private final QRCodeGenerator qrCodeGenerator;
+    private final VerificationTokenUtil verificationTokenUtil;
+    private final CertificateStore certificateStore;
+    private final ByteSizeLruCache<String> rendered;
+    // One render per certificate at a time; concurrent callers wait for it
+    private final ConcurrentMap<String, CompletableFuture<byte[]>> inProgress = new ConcurrentHashMap<>();
+
+    // Encode a signed, self-describing token in QR codes instead of the bare verification id
+    @Value("${app.verification.signed-qr:false}")
+    private boolean signedQr;
+
+    // Defaults for events that do not set their own PDF image encoding
+    @Value("${app.pdf.image-encoding:LOSSLESS}")
+    private String defaultImageEncoding;
+
+    @Value("${app.pdf.jpeg-quality:0.85}")
+    private float defaultJpegQuality;
+
+    @Value("${app.pdf.image-dpi:0}")
+    private int defaultImageDpi;
+
+    public CertificateRenderer(ParticipantRepository participantRepository,
+            CertificateRepository certificateRepository, EventRepository eventRepository,
+            TemplateService templateService,
+            PngCertificateGenerator pngGenerator, QRCodeGenerator qrCodeGenerator,
+            VerificationTokenUtil verificationTokenUtil, CertificateStore certificateStore,
+            @Value("${app.render.cache.max-bytes:67108864}") long maxBytes,
+            @Value("${app.render.cache.off-heap:false}") boolean offHeap) {
+        this.participantRepository = participantRepository;
+        this.certificateRepository = certificateRepository;
+        this.eventRepository = eventRepository;
+        this.templateService = templateService;
+        this.pngGenerator = pngGenerator;
+        this.qrCodeGenerator = qrCodeGenerator;
+        this.verificationTokenUtil = verificationTokenUtil;
+        this.certificateStore = certificateStore;
+        this.rendered = new ByteSizeLruCache<>(maxBytes, offHeap);
+    }
+
+    /**
+     * Render the PDF for a certificate: QR code with the verification URL
+     * overlaid on the template together with the participant name
+     */
+    public byte[] render(Certificate certificate, String participantName, BufferedImage template, String baseUrl,
+            ImageEncoding encoding) throws IOException {
+        return pngGenerator.generateCertificatePdf(template, participantName,
+                qrCode(certificate, participantName, baseUrl), encoding);
+    }
+
+    /**
+     * PDF image encoding policy of an event, falling back to the app defaults
+     */
+    public ImageEncoding encodingFor(Event event) {
+        String format = event != null && event.getImageEncoding() != null ? event.getImageEncoding()
+                : defaultImageEncoding;
+        float quality = event != null && event.getJpegQuality() != null ? event.getJpegQuality()
+                : defaultJpegQuality;
+        Integer dpi = event != null && event.getImageDpi() != null ? event.getImageDpi()
+                : defaultImageDpi > 0 ? Integer.valueOf(defaultImageDpi) : null;
+        return new ImageEncoding(format, quality, dpi);
+    }
+
+    /**
+     * QR code pointing at the verification page for a certificate
+     */
+    public BufferedImage qrCode(Certificate certificate, String participantName, String baseUrl) {
+        LocalDate issuedOn = certificate.getGeneratedAt() != null ? certificate.getGeneratedAt().toLocalDate()
+                : LocalDate.now();
+        String qrPayload = signedQr
+                ? verificationTokenUtil.sign(certificate.getVerificationId(), certificate.getEventId(),
+                        participantName, issuedOn)
+                : certificate.getVerificationId();
+        return qrCodeGenerator.generateQRCode(baseUrl + "/verify/" + qrPayload, 200, 200);
+    }
+
+    /**
+     * PDF bytes of a generated certificate, from the cache, the store, or
+     * rendered now if it was generated lazily
+     */
+    public byte[] getPdf(Certificate certificate) throws IOException {
+        String key = certificate.getFilePath();
+        if (!"GENERATED".equals(certificate.getGenerationStatus())) {
+            throw new NoSuchFileException("Certificate " + certificate.getId() + " is not generated");
+        }
+        if (key == null) {
+            throw new NoSuchFileException("Certificate " + certificate.getId() + " has no file");
+        }
+        byte[] cached = rendered.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        try {
+            byte[] data = certificateStore.read(key);
+            rendered.put(key, data);
+            return data;
+        } catch (NoSuchFileException e) {
+            // Files from before the store existed were always rendered eagerly
+            if (CertificateStore.isLegacyPath(key)) {
+                throw e;
+            }
+            return renderMissing(certificate, key);
+        }
+    }
+
+    /**
+     * Drop a certificate from the cache (regenerated or deleted)
+     */
+    public void evict(String key) {
+        if (key != null) {
+            rendered.remove(key);
+        }
+    }
+
+    private byte[] renderMissing(Certificate certificate, String key) throws IOException {
+        CompletableFuture<byte[]> mine = new CompletableFuture<>();
+        CompletableFuture<byte[]> running = inProgress.putIfAbsent(key, mine);
+        if (running != null) {
+            try {
+                // Each caller gets its own bytes, like a cache hit
+                return running.join().clone();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+            }
+        }
+
+        try {
+            Participant participant = participantRepository.findById(certificate.getParticipantId())
+                    .orElseThrow(() -> new RuntimeException("Participant not found"));
+            TemplateService.RenderTemplate template = templateService.getRenderTemplate(certificate.getEventId());
+            byte[] data = render(certificate, participant.getName(), template.image(), verificationBaseUrl(),
+                    encodingFor(eventRepository.findById(certificate.getEventId()).orElse(null)));
+            try {
+                certificateStore.store(key, data, "application/pdf").join();
+                // Stored, so this render is the certificate from now on; previews follow its template
+                certificateRepository.recordTemplate(certificate.getId(), template.imageHash());
+            } catch (CompletionException e) {
+                // Still serve it; the next cache miss renders again
+                log.warn("Failed to store lazily rendered certificate {}: {}", key, e.getCause().getMessage());
+            }
+            rendered.put(key, data);
+            log.info("Rendered certificate on demand: {}", key);
+            mine.complete(data);
+            return data;
+        } catch (IOException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inProgress.remove(key, mine);
+        }
+    }
+
+    /**
+     * Get the local network verification URL (points to frontend)
+     */
+    public String verificationBaseUrl() {
+        try {
+            // Iterate through network interfaces to find the correct local IP
+            java.util.Enumeration<java.net.NetworkInterface> interfaces = java.net.NetworkInterface
+                    .getNetworkInterfaces();
+            while (interfaces.hasMoreElements()) {
+                java.net.NetworkInterface iface = interfaces.nextElement();
+                // Skip loopback and inactive interfaces
+                if (iface.isLoopback() || !iface.isUp() || iface.isVirtual())
+                    continue;
+
+                java.util.Enumeration<java.net.InetAddress> addresses = iface.getInetAddresses();
+                while (addresses.hasMoreElements()) {
+                    java.net.InetAddress addr = addresses.nextElement();
+                    // Check for IPv4 and site local address (192.168.x.x, 10.x.x.x, etc.)
+                    if (addr instanceof java.net.Inet4Address && !addr.isLoopbackAddress()
+                            && addr.isSiteLocalAddress()) {
+                        String ip = addr.getHostAddress();
+                        log.info("Found local network IP: {}", ip);
+                        return "http://" + ip + ":5173";
+                    }
+                }
+            }
+            // Fallback
+            String ip = java.net.InetAddress.getLocalHost().getHostAddress();
+            log.info("Fallback to local host IP: {}", ip);
+            return "http://" + ip + ":5173";
+        } catch (Exception e) {
+            log.error("Failed to get local IP", e);
+            return "http://localhost:5173";
+        }
+    }
+}
@@ -1,26 +1,49 @@
 package com.certificate.service;
 
 import com.certificate.dto.CertificateStatusDTO;
+import com.certificate.dto.CertificateStatusDeltaDTO;
+import com.certificate.dto.CertificateStatusPageDTO;
+import com.certificate.dto.CertificateSummaryDTO;
 import com.certificate.entity.Certificate;
 import com.certificate.entity.Event;
+import com.certificate.entity.EventCounter;
 import com.certificate.entity.Participant;
-import com.certificate.entity.Template;
+import com.certificate.entity.WorkTask;
 import com.certificate.repository.CertificateRepository;
 import com.certificate.repository.ParticipantRepository;
-import com.certificate.repository.TemplateRepository;
+import com.certificate.security.VerificationTokenUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
-import java.io.File;
-import java.io.FileOutputStream;
-import java.nio.file.Files;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BooleanSupplier;
 import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
@@ -32,43 +55,65 @@ public class CertificateServicePng {
 
     private final CertificateRepository certificateRepository;
     private final ParticipantRepository participantRepository;
-    private final TemplateRepository templateRepository;
+    private final TemplateService templateService;
     private final EventService eventService;
-    private final PngCertificateGenerator pngGenerator;
-    private final EmailDispatchService emailDispatchService;
-    private final com.certificate.util.QRCodeGenerator qrCodeGenerator;
     private final CollaborationService collaborationService;
+    private final AnalyticsService analyticsService;
+    private final VerificationCache verificationCache;
+    private final VerificationTokenUtil verificationTokenUtil;
+    private final EventCounterService eventCounterService;
+    private final CertificateStore certificateStore;
+    private final CertificateRenderer certificateRenderer;
+    private final CertificateFileCleanupService certificateFileCleanupService;
+    @Qualifier("renderExecutor")
+    private final TaskExecutor renderExecutor;
+    private final WorkQueueService workQueueService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
     // Removed JavaMailSender injection from here as it's moved to
     // EmailDispatchService
 
-    private static final String STORAGE_PATH = "./certificates/";
+    private static final int MAX_STATUS_PAGE_SIZE = 1000;
+    // Watermarks trail the clock so rows stamped just before a commit are not skipped
+    private static final Duration WATERMARK_LAG = Duration.ofSeconds(5);
 
+    // Only record the certificate rows; PDFs are rendered on first download or send
+    @Value("${app.generation.lazy:false}")
+    private boolean lazyGeneration;
+
+    // Longest a signed-token scan waits for a database slot to check revocation
+    @Value("${app.verification.revocation-wait-ms:200}")
+    private long revocationWaitMs;
+
+    /**
+     * Create a PENDING certificate for every participant without a generated
+     * one and queue them for rendering. Any backend instance may pick up the
+     * work; the status endpoints show the certificates turning GENERATED.
+     */
     @Transactional
     public void generateCertificates(Long eventId, String email) {
-        Event event = eventService.getEventById(eventId, email);
+        eventService.getEventById(eventId, email);
+        LocalDateTime runStart = LocalDateTime.now();
         List<Participant> participants = participantRepository.findByEventId(eventId);
 
         if (participants.isEmpty()) {
             throw new RuntimeException("No participants found for this event");
         }
 
-        // Get template (custom or default)
-        byte[] templateImage = templateRepository.findByEventId(eventId)
-                .map(Template::getImageData)
-                .orElse(null);
-
-        // Get local IP for QR code verification URL
-        String baseUrl = getLocalVerificationUrl();
-
         // Find existing certificates for this event to check for already generated ones
-        List<Certificate> existingCertificates = certificateRepository.findByEventId(eventId);
+        Map<Long, List<Certificate>> existingByParticipant = certificateRepository.findByEventId(eventId).stream()
+                .collect(Collectors.groupingBy(Certificate::getParticipantId));
 
-        // Generate certificate for each participant
+        long createdCount = 0;
+        EventCounterService.Delta counterDelta = new EventCounterService.Delta();
+        List<Certificate> created = new ArrayList<>();
+        List<String> staleFiles = new ArrayList<>();
         for (Participant participant : participants) {
+            List<Certificate> existing = existingByParticipant.getOrDefault(participant.getId(), List.of());
+
             // Check if participant already has a GENERATED certificate
-            boolean alreadyGenerated = existingCertificates.stream()
-                    .anyMatch(c -> c.getParticipantId().equals(participant.getId())
-                            && "GENERATED".equals(c.getGenerationStatus()));
+            boolean alreadyGenerated = existing.stream()
+                    .anyMatch(c -> "GENERATED".equals(c.getGenerationStatus()));
 
             if (alreadyGenerated) {
                 log.info("Certificate already generated for participant: {}. Skipping.", participant.getName());
@@ -77,113 +122,216 @@ public class CertificateServicePng {
 
             // Remove any pending/failed certificate for this participant before creating a
             // new one
-            existingCertificates.stream()
-                    .filter(c -> c.getParticipantId().equals(participant.getId()))
-                    .forEach(certificateRepository::delete);
+            existing.forEach(c -> {
+                certificateRepository.delete(c);
+                counterDelta.certificateRemoved(c.getGenerationStatus(), c.getEmailStatus());
+                verificationCache.invalidate(c.getVerificationId());
+                certificateRenderer.evict(c.getFilePath());
+                if (c.getFilePath() != null) {
+                    staleFiles.add(c.getFilePath());
+                }
+                analyticsService.recordCertificateDeleted(eventId, c.getCreatedAt());
+            });
 
             Certificate certificate = new Certificate();
             certificate.setParticipantId(participant.getId());
             certificate.setEventId(eventId);
             certificate.setGenerationStatus("PENDING");
 
-            // Generate unique verification ID
-            String verificationId = java.util.UUID.randomUUID().toString();
-            certificate.setVerificationId(verificationId);
-
-            try {
-                // Generate QR code with verification URL
-                String verificationUrl = baseUrl + "/verify/" + verificationId;
-                java.awt.image.BufferedImage qrCode = qrCodeGenerator.generateQRCode(verificationUrl, 200, 200);
-
-                // Generate certificate PNG with QR code
-                byte[] certData = pngGenerator.generateCertificatePdf(templateImage, participant.getName(), qrCode);
-
-                // Save to file system (organized by event folder)
-                String fileName = generateFileName(participant.getName(), participant.getId());
-                String filePath = saveCertificateToFile(certData, event.getEventName(), fileName);
+            // Generate unique verification ID; it is part of the file key, so a regenerated
+            // certificate never shares a stored or cached file with the one it replaces
+            certificate.setVerificationId(java.util.UUID.randomUUID().toString());
+            certificate.setFilePath(CertificateStore.keyFor(eventId,
+                    generateFileName(participant.getName(), participant.getId(), certificate.getVerificationId())));
 
-                certificate.setFilePath(filePath);
-                certificate.setGenerationStatus("GENERATED");
+            if (lazyGeneration) {
+                // Rendered on first download or send
                 certificate.setGeneratedAt(LocalDateTime.now());
-
-                log.info("Generated certificate with verification ID: {} for: {}", verificationId,
-                        participant.getName());
-            } catch (Throwable e) {
-                log.error("Failed to generate certificate for participant: " + participant.getId(), e);
-                certificate.setGenerationStatus("FAILED");
-                certificate.setErrorMessage(e.getMessage());
+                certificate.setGenerationStatus("GENERATED");
             }
 
-            certificateRepository.save(certificate);
+            created.add(certificate);
+            counterDelta.certificateAdded(certificate.getGenerationStatus(), certificate.getEmailStatus());
+            createdCount++;
         }
+
+        certificateRepository.saveAll(created);
+        if (!lazyGeneration && !created.isEmpty()) {
+            workQueueService.enqueue(WorkTask.GENERATE_CERTIFICATES, eventId,
+                    created.stream().map(Certificate::getId).toList(), null);
+        }
+        eventCounterService.apply(eventId, counterDelta);
+        if (createdCount > 0) {
+            // Make these rows newer than any watermark handed out while this transaction ran
+            certificateRepository.touchUpdatedSince(eventId, runStart, LocalDateTime.now());
+        }
+        analyticsService.recordCertificatesCreated(eventId, LocalDateTime.now(), createdCount);
         collaborationService.logAction(eventId, email, "GENERATE_CERTIFICATES", "Generated certificates for event");
+
+        // Files of the replaced certificates carry their old QR codes; remove them once the new rows committed
+        if (!staleFiles.isEmpty()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    certificateFileCleanupService.deleteFilesAsync(staleFiles);
+                }
+            });
+        }
     }
 
     /**
-     * Get the local network verification URL (points to frontend)
+     * Render and store the PDFs of queued certificates. Each certificate is
+     * committed as soon as its file is stored, so an interrupted run keeps the
+     * finished ones; certificates that are no longer PENDING (deleted,
+     * regenerated or finished by an earlier attempt) are skipped. Renders that
+     * have not started once {@code cancelled} is true are left PENDING for the
+     * next attempt.
      */
-    private String getLocalVerificationUrl() {
-        try {
-            // Iterate through network interfaces to find the correct local IP
-            java.util.Enumeration<java.net.NetworkInterface> interfaces = java.net.NetworkInterface
-                    .getNetworkInterfaces();
-            while (interfaces.hasMoreElements()) {
-                java.net.NetworkInterface iface = interfaces.nextElement();
-                // Skip loopback and inactive interfaces
-                if (iface.isLoopback() || !iface.isUp() || iface.isVirtual())
-                    continue;
+    public void renderPending(Long eventId, List<Long> certificateIds, BooleanSupplier cancelled) {
+        List<Certificate> certificates = certificateRepository.findAllById(certificateIds).stream()
+                .filter(c -> "PENDING".equals(c.getGenerationStatus()))
+                .toList();
+        if (certificates.isEmpty()) {
+            return;
+        }
 
-                java.util.Enumeration<java.net.InetAddress> addresses = iface.getInetAddresses();
-                while (addresses.hasMoreElements()) {
-                    java.net.InetAddress addr = addresses.nextElement();
-                    // Check for IPv4 and site local address (192.168.x.x, 10.x.x.x, etc.)
-                    if (addr instanceof java.net.Inet4Address && !addr.isLoopbackAddress()
-                            && addr.isSiteLocalAddress()) {
-                        String ip = addr.getHostAddress();
-                        log.info("Found local network IP: {}", ip);
-                        return "http://" + ip + ":5173";
-                    }
+        // Get template (custom or default) and local IP for the QR verification URL
+        Event event = eventService.getEventByIdInternal(eventId);
+        TemplateService.RenderTemplate template = templateService.getRenderTemplate(eventId);
+        String baseUrl = certificateRenderer.verificationBaseUrl();
+        PngCertificateGenerator.ImageEncoding encoding = certificateRenderer.encodingFor(event);
+        Map<Long, String> names = participantRepository
+                .findAllById(certificates.stream().map(Certificate::getParticipantId).toList()).stream()
+                .collect(Collectors.toMap(Participant::getId, Participant::getName));
+
+        List<Map.Entry<Certificate, CompletableFuture<Void>>> pendingWrites = new ArrayList<>();
+        for (Certificate certificate : certificates) {
+            String name = names.get(certificate.getParticipantId());
+            String key = certificate.getFilePath();
+            certificate.setGeneratedAt(LocalDateTime.now());
+            // Render the PDF with QR code on the render executor and hand it off to the
+            // store; a full render queue makes this thread render inline
+            pendingWrites.add(Map.entry(certificate, CompletableFuture.supplyAsync(() -> {
+                if (cancelled.getAsBoolean()) {
+                    throw new CancellationException("Shutting down");
+                }
+                if (name == null) {
+                    throw new IllegalStateException("Participant not found");
+                }
+                try {
+                    return certificateRenderer.render(certificate, name, template.image(), baseUrl, encoding);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, renderExecutor).thenCompose(certData -> certificateStore.store(key, certData, "application/pdf"))));
+        }
+
+        // Certificates that failed to render or whose file never made it to storage are FAILED
+        for (Map.Entry<Certificate, CompletableFuture<Void>> write : pendingWrites) {
+            Certificate certificate = write.getKey();
+            try {
+                write.getValue().join();
+                checkpoint(certificate, "GENERATED", certificate.getFilePath(), template.imageHash(),
+                        certificate.getGeneratedAt(), null);
+                log.info("Generated certificate with verification ID: {}", certificate.getVerificationId());
+            } catch (CompletionException | CancellationException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                if (cause instanceof CancellationException) {
+                    continue;
                 }
+                log.error("Failed to render or store certificate file {}", certificate.getFilePath(), cause);
+                checkpoint(certificate, "FAILED", null, null, null, cause.getMessage());
             }
-            // Fallback
-            String ip = java.net.InetAddress.getLocalHost().getHostAddress();
-            log.info("Fallback to local host IP: {}", ip);
-            return "http://" + ip + ":5173";
-        } catch (Exception e) {
-            log.error("Failed to get local IP", e);
-            return "http://localhost:5173";
         }
     }
 
+    /**
+     * Mark the certificates of a generation task that was given up FAILED.
+     * Certificates finished or replaced in the meantime are left as they are.
+     */
+    public void failPending(List<Long> certificateIds, String error) {
+        certificateRepository.findAllById(certificateIds).stream()
+                .filter(c -> "PENDING".equals(c.getGenerationStatus()))
+                .forEach(c -> checkpoint(c, "FAILED", null, null, null, error));
+    }
+
+    private void checkpoint(Certificate certificate, String status, String filePath, String templateHash,
+            LocalDateTime generatedAt, String error) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            int updated = certificateRepository.finishGeneration(certificate.getId(), status, filePath, templateHash,
+                    generatedAt, error, LocalDateTime.now());
+            if (updated == 1) {
+                EventCounterService.Delta counterDelta = new EventCounterService.Delta();
+                counterDelta.generationStatusChanged("PENDING", status);
+                eventCounterService.apply(certificate.getEventId(), counterDelta);
+            }
+        });
+        // A lookup while it was PENDING may have been cached as not valid
+        verificationCache.invalidate(certificate.getVerificationId());
+    }
+
     public List<CertificateStatusDTO> getCertificateStatus(Long eventId, String email) {
+        return getCertificateStatus(eventId, email, null);
+    }
+
+    /**
+     * Full status list for an event, optionally filtered on a generation or email
+     * status (e.g. FAILED, or NOT_GENERATED for participants without a certificate).
+     * Built by a single participant/certificate join.
+     */
+    public List<CertificateStatusDTO> getCertificateStatus(Long eventId, String email, String status) {
         eventService.getEventById(eventId, email);
+        return certificateRepository.findStatusPageById(eventId, status, 0L, Pageable.unpaged());
+    }
 
-        List<Certificate> certificates = certificateRepository.findByEventId(eventId);
-        List<Participant> participants = participantRepository.findByEventId(eventId);
+    /**
+     * Keyset-paginated status rows. Sort is "id" (participant id, default) or
+     * "name"; the cursor is the last row's participant id (and name when sorting by
+     * name) from the previous page.
+     */
+    public CertificateStatusPageDTO getCertificateStatusPage(Long eventId, String email, String status,
+            String sort, Long afterId, String afterName, int limit) {
+        eventService.getEventById(eventId, email);
 
-        return participants.stream()
-                .map(participant -> {
-                    Certificate cert = certificates.stream()
-                            .filter(c -> c.getParticipantId().equals(participant.getId()))
-                            .findFirst()
-                            .orElse(null);
-
-                    CertificateStatusDTO dto = new CertificateStatusDTO();
-                    dto.setParticipantName(participant.getName());
-                    dto.setEmail(participant.getEmail());
-
-                    if (cert != null) {
-                        dto.setId(cert.getId());
-                        dto.setGenerationStatus(cert.getGenerationStatus());
-                        dto.setEmailStatus(cert.getEmailStatus());
-                        dto.setUpdateEmailStatus(participant.getUpdateEmailStatus());
-                    } else {
-                        dto.setGenerationStatus("NOT_GENERATED");
-                    }
+        int pageSize = Math.max(1, Math.min(limit, MAX_STATUS_PAGE_SIZE));
+        // Fetch one extra row to know whether another page follows
+        Pageable pageable = PageRequest.ofSize(pageSize + 1);
+        long cursorId = afterId != null ? afterId : 0L;
+        boolean byName = "name".equalsIgnoreCase(sort);
 
-                    return dto;
-                })
-                .collect(Collectors.toList());
+        List<CertificateStatusDTO> rows = byName
+                ? certificateRepository.findStatusPageByName(eventId, status,
+                        afterName != null ? afterName : "", cursorId, pageable)
+                : certificateRepository.findStatusPageById(eventId, status, cursorId, pageable);
+
+        boolean hasMore = rows.size() > pageSize;
+        List<CertificateStatusDTO> items = hasMore ? rows.subList(0, pageSize) : rows;
+        CertificateStatusDTO last = items.isEmpty() ? null : items.get(items.size() - 1);
+
+        return new CertificateStatusPageDTO(items, hasMore,
+                last != null ? last.getParticipantId() : null,
+                last != null && byName ? last.getParticipantName() : null);
+    }
+
+    /**
+     * Status rows changed after the given watermark, or all rows when it is null,
+     * together with the watermark to pass on the next poll
+     */
+    public CertificateStatusDeltaDTO getCertificateStatusChanges(Long eventId, String email, LocalDateTime since) {
+        eventService.getEventById(eventId, email);
+        LocalDateTime watermark = LocalDateTime.now().minus(WATERMARK_LAG);
+
+        if (since == null) {
+            return new CertificateStatusDeltaDTO(
+                    certificateRepository.findStatusPageById(eventId, null, 0L, Pageable.unpaged()), watermark);
+        }
+
+        Map<Long, CertificateStatusDTO> changed = new TreeMap<>();
+        certificateRepository.findStatusByCertificateChangedSince(eventId, since)
+                .forEach(row -> changed.put(row.getParticipantId(), row));
+        certificateRepository.findStatusByParticipantChangedSince(eventId, since)
+                .forEach(row -> changed.put(row.getParticipantId(), row));
+        return new CertificateStatusDeltaDTO(new ArrayList<>(changed.values()), watermark);
     }
 
     public Resource downloadCertificate(Long certificateId, String email) {
@@ -191,11 +339,12 @@ public class CertificateServicePng {
                 .orElseThrow(() -> new RuntimeException("Certificate not found"));
 
         eventService.getEventById(certificate.getEventId(), email);
+        if (!"GENERATED".equals(certificate.getGenerationStatus())) {
+            throw new RuntimeException("Certificate is not generated yet");
+        }
 
         try {
-            File file = new File(certificate.getFilePath());
-            byte[] data = Files.readAllBytes(file.toPath());
-            return new ByteArrayResource(data);
+            return new ByteArrayResource(certificateRenderer.getPdf(certificate));
         } catch (Exception e) {
             throw new RuntimeException("Failed to download certificate", e);
         }
@@ -210,16 +359,17 @@ public class CertificateServicePng {
 
             for (Certificate cert : certificates) {
                 if ("GENERATED".equals(cert.getGenerationStatus()) && cert.getFilePath() != null) {
-                    File file = new File(cert.getFilePath());
-                    if (file.exists()) {
-                        byte[] data = Files.readAllBytes(file.toPath());
-                        ZipEntry entry = new ZipEntry(file.getName());
-                        zos.putNextEntry(entry);
-                        zos.write(data);
-                        zos.closeEntry();
-                    } else {
+                    byte[] data;
+                    try {
+                        data = certificateRenderer.getPdf(cert);
+                    } catch (NoSuchFileException e) {
                         log.warn("Certificate file not found: {}", cert.getFilePath());
+                        continue;
                     }
+                    ZipEntry entry = new ZipEntry(CertificateStore.fileName(cert.getFilePath()));
+                    zos.putNextEntry(entry);
+                    zos.write(data);
+                    zos.closeEntry();
                 }
             }
 
@@ -230,36 +380,32 @@ public class CertificateServicePng {
         }
     }
 
+    @Transactional
     public void sendCertificateByEmail(Long certificateId, String senderEmail) {
-        // Use async send for fast UI response
-        emailDispatchService.sendEmailAsync(certificateId, senderEmail);
-        collaborationService.logAction(certificateRepository.findById(certificateId).get().getEventId(),
-                senderEmail, "SEND_EMAIL", "Sent certificate email ID: " + certificateId);
+        Long eventId = certificateRepository.findById(certificateId)
+                .orElseThrow(() -> new RuntimeException("Certificate not found"))
+                .getEventId();
+        // Queued for fast UI response; any instance sends it
+        workQueueService.enqueue(WorkTask.SEND_CERTIFICATES, eventId, List.of(certificateId), null);
+        collaborationService.logAction(eventId, senderEmail, "SEND_EMAIL",
+                "Sent certificate email ID: " + certificateId);
     }
 
+    @Transactional
     public void sendAllCertificates(Long eventId, String senderEmail) {
         // Check ownership once
         eventService.getEventById(eventId, senderEmail);
 
-        List<Certificate> certificates = certificateRepository.findByEventId(eventId).stream()
-                .filter(c -> "GENERATED".equals(c.getGenerationStatus()))
-                .collect(Collectors.toList());
-
-        if (certificates.isEmpty())
+        List<Long> certificateIds = certificateRepository.findIdsByEventIdAndGenerationStatus(eventId, "GENERATED");
+        if (certificateIds.isEmpty())
             return;
 
-        // Chunk into batches of 50 for maximum throughput per thread
-        int batchSize = 50;
-        for (int i = 0; i < certificates.size(); i += batchSize) {
-            List<Long> batchIds = certificates.subList(i, Math.min(i + batchSize, certificates.size()))
-                    .stream()
-                    .map(Certificate::getId)
-                    .collect(Collectors.toList());
-            emailDispatchService.sendEmailsBatchAsync(batchIds, eventId);
-        }
+        // Queued in batches that the instances claim and send in parallel
+        workQueueService.enqueue(WorkTask.SEND_CERTIFICATES, eventId, certificateIds, null);
         collaborationService.logAction(eventId, senderEmail, "SEND_ALL_EMAILS", "Triggered mass email dispatch");
     }
 
+    @Transactional
     public void sendUpdateEmails(Long eventId, String subject, String content, String senderEmail) {
         Event event = eventService.getEventById(eventId, senderEmail);
         List<Long> participantIds = participantRepository.findByEventId(eventId).stream()
@@ -269,66 +415,64 @@ public class CertificateServicePng {
         if (participantIds.isEmpty())
             return;
 
-        // Chunk updates for massive parallelism
-        int batchSize = 50;
-        for (int i = 0; i < participantIds.size(); i += batchSize) {
-            List<Long> batchIds = participantIds.subList(i, Math.min(i + batchSize, participantIds.size()));
-            emailDispatchService.sendUpdateEmailsBatchAsync(batchIds, subject, content, event.getOrganizerName());
+        // Queued in batches that the instances claim and send in parallel
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(
+                    new EmailDispatchService.UpdateEmail(subject, content, event.getOrganizerName()));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to queue update emails", e);
         }
+        workQueueService.enqueue(WorkTask.SEND_UPDATES, eventId, participantIds, payload);
         collaborationService.logAction(eventId, senderEmail, "SEND_UPDATES", "Sent mass updates: " + subject);
     }
 
-    private String generateFileName(String participantName, Long participantId) {
+    private String generateFileName(String participantName, Long participantId, String verificationId) {
         String sanitizedName = participantName.replaceAll("[^a-zA-Z0-9]", "_");
-        return sanitizedName + "_" + participantId + ".pdf";
+        return sanitizedName + "_" + participantId + "_" + verificationId + ".pdf";
     }
 
-    private String saveCertificateToFile(byte[] data, String eventName, String fileName) throws Exception {
-        String sanitizedEventName = eventName.replaceAll("[^a-zA-Z0-9 ]", "_");
-        File eventDir = new File(STORAGE_PATH + sanitizedEventName);
-
-        if (!eventDir.exists()) {
-            eventDir.mkdirs();
-        }
-
-        String filePath = eventDir.getPath() + File.separator + fileName;
-        try (FileOutputStream fos = new FileOutputStream(filePath)) {
-            fos.write(data);
-        }
-
-        log.info("Saved certificate for event '{}' to: {}", eventName, filePath);
-        return filePath;
+    /**
+     * Participant and certificate status counts for an event, read from the
+     * incrementally maintained counters
+     */
+    public CertificateSummaryDTO getCertificateSummary(Long eventId, String email) {
+        eventService.getEventById(eventId, email);
+        EventCounter counters = eventCounterService.getCounters(eventId);
+        return new CertificateSummaryDTO(eventId, counters.getParticipants(), counters.getGenerated(),
+                counters.getGenerationFailed(), counters.getEmailsSent(), counters.getEmailsFailed(),
+                counters.getEmailsPending());
     }
 
     /**
      * Verify certificate by verification ID (public endpoint, no auth required)
      */
     public com.certificate.dto.CertificateVerificationDTO verifyCertificate(String verificationId) {
-        Certificate certificate = certificateRepository.findByVerificationId(verificationId)
-                .orElseThrow(() -> new RuntimeException("Certificate not found or invalid"));
-
-        if (!"GENERATED".equals(certificate.getGenerationStatus())) {
-            throw new RuntimeException("Certificate is not valid");
+        if (VerificationTokenUtil.isToken(verificationId)) {
+            return verifySignedToken(verificationId);
         }
+        return verificationCache.verify(verificationId);
+    }
 
-        // Get participant details
-        Participant participant = participantRepository.findById(certificate.getParticipantId())
-                .orElseThrow(() -> new RuntimeException("Participant not found"));
-
-        // Get event details
-        Event event = eventService.getEventByIdInternal(certificate.getEventId());
-
-        // Build verification response
-        com.certificate.dto.CertificateVerificationDTO dto = new com.certificate.dto.CertificateVerificationDTO();
-        dto.setValid(true);
-        dto.setParticipantName(participant.getName());
-        dto.setEventName(event.getEventName());
-        dto.setEventDate(event.getEventDate());
-        dto.setOrganizerName(event.getOrganizerName());
-        dto.setInstituteName(event.getInstituteName());
-        dto.setGeneratedAt(certificate.getGeneratedAt());
-        dto.setVerificationId(verificationId);
-
-        return dto;
+    /**
+     * Signed QR tokens are authenticated by their signature alone; the database
+     * is only consulted to see whether the certificate was revoked (deleted or
+     * regenerated). That check comes from the verification cache or a lookup
+     * bounded by app.verification.revocation-wait-ms; if the database cannot
+     * answer in time, the signed claims are returned as they are.
+     */
+    private com.certificate.dto.CertificateVerificationDTO verifySignedToken(String token) {
+        VerificationTokenUtil.Payload payload = verificationTokenUtil.verify(token)
+                .orElseThrow(() -> new RuntimeException("Certificate not found or invalid"));
+        Duration wait = Duration.ofMillis(revocationWaitMs);
+        return verificationCache.verifyIfAvailable(payload.verificationId(), wait).orElseGet(() -> {
+            log.warn("Revocation check unavailable for {}, trusting signed token", payload.verificationId());
+            com.certificate.dto.CertificateVerificationDTO dto = new com.certificate.dto.CertificateVerificationDTO();
+            dto.setValid(true);
+            dto.setParticipantName(payload.participantName());
+            dto.setGeneratedAt(payload.issuedOn().atStartOfDay());
+            dto.setVerificationId(payload.verificationId());
+            return dto;
+        });
     }
 }
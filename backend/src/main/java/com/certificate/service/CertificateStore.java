@@ -0,0 +1,55 @@
+package com.certificate.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
+
+/**
+ * Storage for generated certificate files, addressed by a relative key.
+ * Keys are sharded by event id ({@code <2 hex digits>/<eventId>/<file>}) so
+ * events never share a folder and no folder grows with the number of events.
+ * The backend is chosen with {@code app.storage.type} (local, supabase or memory).
+ */
+public interface CertificateStore {
+
+    // "_<verification id>" suffix that makes each issued certificate's key unique
+    Pattern VERIFICATION_SUFFIX = Pattern
+            .compile("_[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}(?=\\.pdf$)");
+
+    /**
+     * Store the bytes under the key. The future completes once the file is
+     * durable; backends may return before that and upload in the background.
+     */
+    CompletableFuture<Void> store(String key, byte[] data, String contentType);
+
+    byte[] read(String key) throws IOException;
+
+    void delete(String key) throws IOException;
+
+    static String keyFor(Long eventId, String fileName) {
+        return String.format("%02x/%d/%s", eventId & 0xff, eventId, fileName);
+    }
+
+    /**
+     * Last path segment of a key without its verification id, used as the
+     * download or attachment name
+     */
+    static String fileName(String key) {
+        int slash = Math.max(key.lastIndexOf('/'), key.lastIndexOf('\\'));
+        return VERIFICATION_SUFFIX.matcher(slash >= 0 ? key.substring(slash + 1) : key).replaceFirst("");
+    }
+
+    /**
+     * Rows written before the store existed hold a working-directory relative
+     * path such as {@code ./certificates/<event name>/<file>}
+     */
+    static boolean isLegacyPath(String key) {
+        return key.startsWith("./") || key.startsWith(".\\") || Paths.get(key).isAbsolute();
+    }
+
+    static Path legacyPath(String key) {
+        return Paths.get(key).toAbsolutePath().normalize();
+    }
+}
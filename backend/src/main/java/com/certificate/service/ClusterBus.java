@@ -0,0 +1,229 @@
+package com.certificate.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Carries cache invalidations and user notifications between the nodes that
+ * share one database, over PostgreSQL LISTEN/NOTIFY. A background thread owns
+ * a dedicated connection outside the pool: it sends the queued notifications
+ * and hands those of other nodes to the handlers subscribed to their topic.
+ * Notifications go out once the current transaction has committed, and a node
+ * ignores its own. Notifications sent while the connection was down are lost,
+ * so after a reconnect the resync hooks run and the caches start over.
+ * <p>
+ * The connection needs a session-level link to Postgres; behind a transaction
+ * pooler set app.cluster.listen-url to a direct or session-mode URL. Without
+ * PostgreSQL (or with app.cluster.enabled=false) the bus does nothing and every
+ * cache is node-local, which is only correct for a single node.
+ */
+@Slf4j
+@Component
+public class ClusterBus {
+
+    private static final String CHANNEL = "app_cluster";
+    // NOTIFY payloads must stay under 8000 bytes
+    private static final int MAX_PAYLOAD_BYTES = 7900;
+    private static final long RECONNECT_DELAY_MS = 5000;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, List<Consumer<String>>> handlers = new ConcurrentHashMap<>();
+    private final List<Runnable> resyncHooks = new CopyOnWriteArrayList<>();
+    private final BlockingQueue<String> outgoing;
+    private final HikariDataSource dataSource;
+    private final String listenUrl;
+    private final int pollMillis;
+
+    private volatile boolean running = true;
+    private Thread worker;
+
+    public ClusterBus(DataSource dataSource,
+            @Value("${app.cluster.enabled:true}") boolean enabled,
+            @Value("${app.cluster.listen-url:}") String listenUrl,
+            @Value("${app.cluster.queue-capacity:10000}") int queueCapacity,
+            @Value("${app.cluster.poll-ms:250}") int pollMillis) {
+        HikariDataSource hikari = dataSource instanceof HikariDataSource h ? h : null;
+        String url = !listenUrl.isBlank() ? listenUrl : hikari != null ? hikari.getJdbcUrl() : null;
+        boolean postgres = hikari != null && url != null && url.startsWith("jdbc:postgresql:");
+        this.dataSource = enabled && postgres ? hikari : null;
+        this.listenUrl = url;
+        this.outgoing = new ArrayBlockingQueue<>(queueCapacity);
+        this.pollMillis = pollMillis;
+    }
+
+    @PostConstruct
+    void start() {
+        if (dataSource == null) {
+            log.info("Cluster bus disabled, caches and event streams are node-local");
+            return;
+        }
+        worker = new Thread(this::run, "ClusterBus");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Handle a topic's notifications from other nodes. Handlers run on the bus
+     * thread, so they should be quick (memory, or at most a lookup by key).
+     */
+    public void subscribe(String topic, Consumer<String> handler) {
+        handlers.computeIfAbsent(topic, t -> new CopyOnWriteArrayList<>()).add(handler);
+    }
+
+    /**
+     * Run after a reconnect, when notifications from other nodes may have been missed
+     */
+    public void onResync(Runnable hook) {
+        resyncHooks.add(hook);
+    }
+
+    /**
+     * Send a notification to the other nodes once the current transaction (if any) commits
+     */
+    public void publish(String topic, String argument) {
+        if (dataSource == null) {
+            return;
+        }
+        String payload = nodeId + "\n" + topic + "\n" + argument;
+        if (payload.getBytes(StandardCharsets.UTF_8).length > MAX_PAYLOAD_BYTES) {
+            log.warn("Cluster notification for {} is too large, not sent", topic);
+            return;
+        }
+        Runnable send = () -> {
+            if (!outgoing.offer(payload)) {
+                log.warn("Cluster bus queue full, dropping {} notification", topic);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send.run();
+                }
+            });
+        } else {
+            send.run();
+        }
+    }
+
+    private void run() {
+        boolean missed = false;
+        while (running) {
+            try (Connection connection = connect()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                log.info("Cluster bus listening as node {}", nodeId);
+                if (missed) {
+                    resync();
+                }
+                PGConnection pg = connection.unwrap(PGConnection.class);
+                try (PreparedStatement notify = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+                    while (running) {
+                        send(notify);
+                        PGNotification[] received = pg.getNotifications(pollMillis);
+                        if (received != null) {
+                            for (PGNotification notification : received) {
+                                deliver(notification.getParameter());
+                            }
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    break;
+                }
+                missed = true;
+                log.warn("Cluster bus connection lost, reconnecting in {} ms: {}", RECONNECT_DELAY_MS,
+                        e.getMessage());
+                try {
+                    TimeUnit.MILLISECONDS.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException interrupted) {
+                    running = false;
+                }
+            }
+        }
+    }
+
+    private Connection connect() throws SQLException {
+        Properties properties = new Properties();
+        properties.putAll(dataSource.getDataSourceProperties());
+        if (dataSource.getUsername() != null) {
+            properties.setProperty("user", dataSource.getUsername());
+        }
+        if (dataSource.getPassword() != null) {
+            properties.setProperty("password", dataSource.getPassword());
+        }
+        return DriverManager.getConnection(listenUrl, properties);
+    }
+
+    private void send(PreparedStatement notify) throws SQLException {
+        String payload;
+        while ((payload = outgoing.peek()) != null) {
+            notify.setString(1, CHANNEL);
+            notify.setString(2, payload);
+            notify.execute();
+            // Only dequeued once sent, so a broken connection keeps it for the next one
+            outgoing.poll();
+        }
+    }
+
+    private void deliver(String payload) {
+        String[] parts = payload.split("\n", 3);
+        if (parts.length < 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        for (Consumer<String> handler : handlers.getOrDefault(parts[1], List.of())) {
+            try {
+                handler.accept(parts[2]);
+            } catch (RuntimeException e) {
+                log.warn("Cluster notification {} failed: {}", parts[1], e.getMessage());
+            }
+        }
+    }
+
+    private void resync() {
+        log.info("Cluster bus reconnected, dropping node-local cache state");
+        for (Runnable hook : resyncHooks) {
+            try {
+                hook.run();
+            } catch (RuntimeException e) {
+                log.warn("Cluster resync hook failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (worker != null) {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+}
@@ -1,17 +1,24 @@
 package com.certificate.service;
 
+import com.certificate.config.SecondLevelCacheSync;
 import com.certificate.dto.*;
 import com.certificate.entity.*;
 import com.certificate.repository.*;
+import com.certificate.service.OrganizerIdentityCache.Identity;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -23,6 +30,11 @@ public class CollaborationService {
     private final OrganizerRepository organizerRepository;
     private final EventRepository eventRepository;
     private final EventLogRepository eventLogRepository;
+    private final EventAccessCache eventAccessCache;
+    private final OrganizerIdentityCache identityCache;
+    private final AuditLogWriter auditLogWriter;
+    private final MessageNotificationService notificationService;
+    private final SecondLevelCacheSync secondLevelCacheSync;
 
     /**
      * Send collaboration invitation
@@ -35,25 +47,25 @@ public class CollaborationService {
                 .orElseThrow(() -> new RuntimeException("Event not found"));
 
         // Validate sender is the owner
-        Organizer sender = organizerRepository.findByEmail(senderEmail)
+        Identity sender = identityCache.findByEmail(senderEmail)
                 .orElseThrow(() -> new RuntimeException("Sender not found"));
 
-        if (!event.getOrganizerId().equals(sender.getId())) {
+        if (!event.getOrganizerId().equals(sender.id())) {
             throw new RuntimeException("Only event owner can invite collaborators");
         }
 
         // Validate recipient exists
-        Organizer recipient = organizerRepository.findByEmail(request.getEmail())
+        Identity recipient = identityCache.findByEmail(request.getEmail())
                 .orElseThrow(() -> new RuntimeException("User not found with email: " + request.getEmail()));
 
         // Prevent self-invitation
-        if (sender.getId().equals(recipient.getId())) {
+        if (sender.id().equals(recipient.id())) {
             throw new RuntimeException("You cannot invite yourself");
         }
 
         // Check if already an active collaborator (ACCEPTED)
         Optional<EventCollaborator> existingCollab = collaboratorRepository.findByEventIdAndUserId(eventId,
-                recipient.getId());
+                recipient.id());
         if (existingCollab.isPresent() && "ACCEPTED".equals(existingCollab.get().getStatus())) {
             throw new RuntimeException("User is already a collaborator on this event");
         }
@@ -66,19 +78,21 @@ public class CollaborationService {
         // Create or Update collaborator entry as PENDING
         EventCollaborator collaborator = existingCollab.orElse(new EventCollaborator());
         collaborator.setEventId(eventId);
-        collaborator.setUserId(recipient.getId());
+        collaborator.setUserId(recipient.id());
         collaborator.setRole("COLLABORATOR");
         collaborator.setStatus("PENDING");
         collaboratorRepository.save(collaborator);
+        eventAccessCache.invalidate(recipient.id(), eventId);
 
         // Create invitation request
         CollaborationRequest collab = new CollaborationRequest();
         collab.setEventId(eventId);
-        collab.setSenderId(sender.getId());
+        collab.setSenderId(sender.id());
         collab.setRecipientEmail(request.getEmail());
         collab.setStatus("PENDING");
 
         CollaborationRequest saved = requestRepository.save(collab);
+        notificationService.activityChanged(recipient.id());
 
         log.info("Collaboration invitation sent: Event={}, Sender={}, Recipient={}",
                 eventId, senderEmail, request.getEmail());
@@ -88,8 +102,8 @@ public class CollaborationService {
         dto.setId(saved.getId());
         dto.setEventId(saved.getEventId());
         dto.setEventName(event.getEventName());
-        dto.setSenderName(sender.getFullName());
-        dto.setSenderEmail(sender.getEmail());
+        dto.setSenderName(sender.fullName());
+        dto.setSenderEmail(sender.email());
         dto.setStatus(saved.getStatus());
         dto.setCreatedAt(saved.getCreatedAt());
 
@@ -102,16 +116,19 @@ public class CollaborationService {
     public List<CollaborationRequestDTO> getRequestsForUser(String email) {
         List<CollaborationRequest> requests = requestRepository.findByRecipientEmailAndStatus(email, "PENDING");
 
+        Map<Long, Event> events = loadEvents(requests.stream().map(CollaborationRequest::getEventId));
+        Map<Long, Identity> senders = loadOrganizers(requests.stream().map(CollaborationRequest::getSenderId));
+
         return requests.stream().map(req -> {
-            Event event = eventRepository.findById(req.getEventId()).orElse(null);
-            Organizer sender = organizerRepository.findById(req.getSenderId()).orElse(null);
+            Event event = events.get(req.getEventId());
+            Identity sender = senders.get(req.getSenderId());
 
             CollaborationRequestDTO dto = new CollaborationRequestDTO();
             dto.setId(req.getId());
             dto.setEventId(req.getEventId());
             dto.setEventName(event != null ? event.getEventName() : "Unknown Event");
-            dto.setSenderName(sender != null ? sender.getFullName() : "Unknown");
-            dto.setSenderEmail(sender != null ? sender.getEmail() : "");
+            dto.setSenderName(sender != null ? sender.fullName() : "Unknown");
+            dto.setSenderEmail(sender != null ? sender.email() : "");
             dto.setStatus(req.getStatus());
             dto.setCreatedAt(req.getCreatedAt());
 
@@ -123,20 +140,26 @@ public class CollaborationService {
      * Get all requests sent by a user that are NOT pending (ACCEPTED/DECLINED)
      */
     public List<CollaborationRequestDTO> getSenderRequests(String userEmail) {
-        Organizer sender = organizerRepository.findByEmail(userEmail)
+        Identity sender = identityCache.findByEmail(userEmail)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        List<CollaborationRequest> requests = requestRepository.findBySenderIdAndStatusNot(sender.getId(), "PENDING");
+        List<CollaborationRequest> requests = requestRepository.findBySenderIdAndStatusNot(sender.id(), "PENDING");
+
+        Map<Long, Event> events = loadEvents(requests.stream().map(CollaborationRequest::getEventId));
+        Set<String> recipientEmails = requests.stream()
+                .map(CollaborationRequest::getRecipientEmail)
+                .collect(Collectors.toSet());
+        Map<String, Identity> recipients = identityCache.findAllByEmail(recipientEmails);
 
         return requests.stream().map(req -> {
-            Event event = eventRepository.findById(req.getEventId()).orElse(null);
-            Organizer recipient = organizerRepository.findByEmail(req.getRecipientEmail()).orElse(null);
+            Event event = events.get(req.getEventId());
+            Identity recipient = recipients.get(req.getRecipientEmail());
 
             CollaborationRequestDTO dto = new CollaborationRequestDTO();
             dto.setId(req.getId());
             dto.setEventId(req.getEventId());
             dto.setEventName(event != null ? event.getEventName() : "Unknown Event");
-            dto.setSenderName(recipient != null ? recipient.getFullName() : req.getRecipientEmail());
+            dto.setSenderName(recipient != null ? recipient.fullName() : req.getRecipientEmail());
             dto.setSenderEmail(req.getRecipientEmail());
             dto.setStatus(req.getStatus());
             dto.setCreatedAt(req.getCreatedAt());
@@ -163,24 +186,26 @@ public class CollaborationService {
         }
 
         // Get user ID
-        Organizer user = organizerRepository.findByEmail(userEmail)
+        Identity user = identityCache.findByEmail(userEmail)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         // Find and update collaborator entry
         EventCollaborator collaborator = collaboratorRepository
-                .findByEventIdAndUserId(request.getEventId(), user.getId())
+                .findByEventIdAndUserId(request.getEventId(), user.id())
                 .orElse(new EventCollaborator());
 
         collaborator.setEventId(request.getEventId());
-        collaborator.setUserId(user.getId());
+        collaborator.setUserId(user.id());
         collaborator.setRole("COLLABORATOR");
         collaborator.setStatus("ACCEPTED");
         collaboratorRepository.save(collaborator);
+        eventAccessCache.invalidate(user.id(), request.getEventId());
 
         // Update request status
         request.setStatus("ACCEPTED");
         request.setRespondedAt(LocalDateTime.now());
         requestRepository.save(request);
+        notificationService.activityChanged(request.getSenderId());
 
         log.info("Collaboration request accepted: RequestId={}, User={}", requestId, userEmail);
     }
@@ -206,15 +231,17 @@ public class CollaborationService {
         request.setStatus("DECLINED");
         request.setRespondedAt(LocalDateTime.now());
         requestRepository.save(request);
+        notificationService.activityChanged(request.getSenderId());
 
         // Update collaborator entry to DECLINED if it exists
-        Organizer user = organizerRepository.findByEmail(userEmail).orElse(null);
+        Identity user = identityCache.findByEmail(userEmail).orElse(null);
         if (user != null) {
-            collaboratorRepository.findByEventIdAndUserId(request.getEventId(), user.getId())
+            collaboratorRepository.findByEventIdAndUserId(request.getEventId(), user.id())
                     .ifPresent(collab -> {
                         collab.setStatus("DECLINED");
                         collaboratorRepository.save(collab);
                     });
+            eventAccessCache.invalidate(user.id(), request.getEventId());
         }
 
         log.info("Collaboration request declined: RequestId={}, User={}", requestId, userEmail);
@@ -225,14 +252,15 @@ public class CollaborationService {
      */
     public List<CollaboratorDTO> getEventCollaborators(Long eventId) {
         List<EventCollaborator> collaborators = collaboratorRepository.findByEventId(eventId);
+        Map<Long, Identity> users = loadOrganizers(collaborators.stream().map(EventCollaborator::getUserId));
 
         return collaborators.stream().map(collab -> {
-            Organizer user = organizerRepository.findById(collab.getUserId()).orElse(null);
+            Identity user = users.get(collab.getUserId());
 
             CollaboratorDTO dto = new CollaboratorDTO();
             dto.setUserId(collab.getUserId());
-            dto.setName(user != null ? user.getFullName() : "Unknown");
-            dto.setEmail(user != null ? user.getEmail() : "");
+            dto.setName(user != null ? user.fullName() : "Unknown");
+            dto.setEmail(user != null ? user.email() : "");
             dto.setRole(collab.getRole());
             dto.setStatus(collab.getStatus());
             dto.setAddedAt(collab.getAddedAt());
@@ -250,14 +278,16 @@ public class CollaborationService {
         Event event = eventRepository.findById(eventId)
                 .orElseThrow(() -> new RuntimeException("Event not found"));
 
-        Organizer owner = organizerRepository.findByEmail(ownerEmail)
+        Identity owner = identityCache.findByEmail(ownerEmail)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        if (!event.getOrganizerId().equals(owner.getId())) {
+        if (!event.getOrganizerId().equals(owner.id())) {
             throw new RuntimeException("Only event owner can remove collaborators");
         }
 
         collaboratorRepository.deleteByEventIdAndUserId(eventId, userId);
+        eventAccessCache.invalidate(userId, eventId);
+        secondLevelCacheSync.evictEverywhere(EventCollaborator.class);
 
         log.info("Collaborator removed: Event={}, UserId={}", eventId, userId);
     }
@@ -270,14 +300,14 @@ public class CollaborationService {
         Event event = eventRepository.findById(eventId)
                 .orElseThrow(() -> new RuntimeException("Event not found"));
 
-        Organizer sender = organizerRepository.findByEmail(senderEmail)
+        Identity sender = identityCache.findByEmail(senderEmail)
                 .orElseThrow(() -> new RuntimeException("Sender not found"));
 
-        Organizer recipient = organizerRepository.findById(userId)
+        Identity recipient = identityCache.findById(userId)
                 .orElseThrow(() -> new RuntimeException("Recipient not found"));
 
         // Only owner can resend
-        if (!event.getOrganizerId().equals(sender.getId())) {
+        if (!event.getOrganizerId().equals(sender.id())) {
             throw new RuntimeException("Only event owner can manage collaborators");
         }
 
@@ -287,17 +317,19 @@ public class CollaborationService {
 
         collaborator.setStatus("PENDING");
         collaboratorRepository.save(collaborator);
+        eventAccessCache.invalidate(userId, eventId);
 
         // Create a new PENDING request
         CollaborationRequest request = new CollaborationRequest();
         request.setEventId(eventId);
-        request.setSenderId(sender.getId());
-        request.setRecipientEmail(recipient.getEmail());
+        request.setSenderId(sender.id());
+        request.setRecipientEmail(recipient.email());
         request.setStatus("PENDING");
         requestRepository.save(request);
+        notificationService.activityChanged(recipient.id());
 
         log.info("Invitation resent: Event={}, Sender={}, Recipient={}",
-                eventId, senderEmail, recipient.getEmail());
+                eventId, senderEmail, recipient.email());
     }
 
     /**
@@ -327,11 +359,18 @@ public class CollaborationService {
      * Check if user is collaborator on event
      */
     public boolean isCollaborator(Long eventId, String userEmail) {
-        Organizer user = organizerRepository.findByEmail(userEmail).orElse(null);
+        Identity user = identityCache.findByEmail(userEmail).orElse(null);
         if (user == null)
             return false;
 
-        return collaboratorRepository.findByEventIdAndUserId(eventId, user.getId())
+        return isCollaborator(eventId, user.id());
+    }
+
+    /**
+     * Check if user (by id) is an accepted collaborator on event
+     */
+    public boolean isCollaborator(Long eventId, Long userId) {
+        return collaboratorRepository.findByEventIdAndUserId(eventId, userId)
                 .map(c -> "ACCEPTED".equals(c.getStatus()))
                 .orElse(false);
     }
@@ -340,31 +379,22 @@ public class CollaborationService {
      * Get all events user collaborates on (only ACCEPTED)
      */
     public List<Long> getCollaboratedEventIds(String userEmail) {
-        Organizer user = organizerRepository.findByEmail(userEmail).orElse(null);
+        Identity user = identityCache.findByEmail(userEmail).orElse(null);
         if (user == null)
             return List.of();
 
-        return collaboratorRepository.findByUserId(user.getId()).stream()
+        return collaboratorRepository.findByUserId(user.id()).stream()
                 .filter(c -> "ACCEPTED".equals(c.getStatus()))
                 .map(EventCollaborator::getEventId)
                 .collect(Collectors.toList());
     }
 
     /**
-     * Log an action done by a user in an event
+     * Log an action done by a user in an event. The entry is written
+     * asynchronously in batches by {@link AuditLogWriter}.
      */
-    @Transactional
     public void logAction(Long eventId, String userEmail, String action, String details) {
-        Organizer user = organizerRepository.findByEmail(userEmail).orElse(null);
-        if (user == null)
-            return;
-
-        EventLog log = new EventLog();
-        log.setEventId(eventId);
-        log.setUserId(user.getId());
-        log.setAction(action);
-        log.setDetails(details);
-        eventLogRepository.save(log);
+        auditLogWriter.submit(eventId, userEmail, action, details);
     }
 
     /**
@@ -372,8 +402,8 @@ public class CollaborationService {
      */
     public List<EventLogDTO> getCollaboratorLogs(Long eventId, Long userId) {
         List<EventLog> logs = eventLogRepository.findByEventIdAndUserIdOrderByTimestampDesc(eventId, userId);
-        Organizer user = organizerRepository.findById(userId).orElse(null);
-        String userName = user != null ? user.getFullName() : "Unknown";
+        Identity user = identityCache.findById(userId).orElse(null);
+        String userName = user != null ? user.fullName() : "Unknown";
 
         return logs.stream().map(logEntry -> {
             EventLogDTO dto = new EventLogDTO();
@@ -392,28 +422,31 @@ public class CollaborationService {
      * Get recent logs for all events owned by the user (only collaborator actions)
      */
     public List<EventLogDTO> getLogsForOwnedEvents(String ownerEmail) {
-        Organizer owner = organizerRepository.findByEmail(ownerEmail)
+        Identity owner = identityCache.findByEmail(ownerEmail)
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        List<Event> ownedEvents = eventRepository.findByOrganizerId(owner.getId());
+        List<Event> ownedEvents = eventRepository.findByOrganizerId(owner.id());
 
         if (ownedEvents.isEmpty())
             return List.of();
 
         List<Long> eventIds = ownedEvents.stream().map(Event::getId).collect(Collectors.toList());
+        Map<Long, Event> events = ownedEvents.stream()
+                .collect(Collectors.toMap(Event::getId, Function.identity()));
 
-        List<EventLog> logs = eventLogRepository.findByEventIdInOrderByTimestampDesc(eventIds);
+        // Only collaborator actions; the owner's own actions are filtered out in the query
+        List<EventLog> logs = eventLogRepository.findByEventIdInAndUserIdNotOrderByTimestampDesc(eventIds,
+                owner.id(), PageRequest.ofSize(20));
+        Map<Long, Identity> users = loadOrganizers(logs.stream().map(EventLog::getUserId));
 
         return logs.stream()
-                .filter(log -> !log.getUserId().equals(owner.getId())) // Filter out owner's own actions
-                .limit(20)
                 .map(logEntry -> {
-                    Organizer user = organizerRepository.findById(logEntry.getUserId()).orElse(null);
-                    Event event = eventRepository.findById(logEntry.getEventId()).orElse(null);
+                    Identity user = users.get(logEntry.getUserId());
+                    Event event = events.get(logEntry.getEventId());
                     EventLogDTO dto = new EventLogDTO();
                     dto.setId(logEntry.getId());
                     dto.setEventId(logEntry.getEventId());
                     dto.setUserId(logEntry.getUserId());
-                    dto.setUserName(user != null ? user.getFullName() : "Unknown");
+                    dto.setUserName(user != null ? user.fullName() : "Unknown");
                     String eventName = event != null ? event.getEventName() : "Unknown Event";
                     dto.setAction(logEntry.getAction() + " in " + eventName);
                     dto.setDetails(logEntry.getDetails());
@@ -421,4 +454,25 @@ public class CollaborationService {
                     return dto;
                 }).collect(Collectors.toList());
     }
+
+    /**
+     * Load the referenced events with one query, keyed by id
+     */
+    private Map<Long, Event> loadEvents(Stream<Long> eventIds) {
+        Set<Long> ids = eventIds.collect(Collectors.toSet());
+        if (ids.isEmpty())
+            return Map.of();
+        return eventRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Event::getId, Function.identity()));
+    }
+
+    /**
+     * Resolve the referenced organizers through the identity cache, keyed by id
+     */
+    private Map<Long, Identity> loadOrganizers(Stream<Long> organizerIds) {
+        Set<Long> ids = organizerIds.collect(Collectors.toSet());
+        if (ids.isEmpty())
+            return Map.of();
+        return identityCache.findAllById(ids);
+    }
 }
@@ -0,0 +1,139 @@
+package com.certificate.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Caps on the scarce resources behind the I/O-bound work. With virtual threads
+ * thousands of sends may be in flight at once; only as many as there are
+ * permits talk to the mail server or hold a database connection, the rest wait
+ * here cheaply instead of timing out in the connection pool.
+ * <p>
+ * The limits only apply when virtual threads are in effect; with platform
+ * thread pools the pool sizes already bound the work and every call runs
+ * straight through. Public verification lookups get their own database budget
+ * and a bounded wait, so a running email campaign cannot queue them up.
+ */
+@Slf4j
+@Component
+public class ConcurrencyLimits {
+
+    private final boolean enabled;
+    private final Semaphore smtp;
+    private final Semaphore database;
+    private final Semaphore verification;
+    private final Duration verificationWait;
+
+    /**
+     * A held slot, released on close
+     */
+    public interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * @param dbConnections permits for database work; 0 (the default) derives
+     *                      them from the Hikari pool size, leaving
+     *                      db-headroom connections for request handling
+     */
+    public ConcurrencyLimits(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            @Value("${app.limits.smtp-connections:20}") int smtpConnections,
+            @Value("${app.limits.db-connections:0}") int dbConnections,
+            @Value("${app.limits.db-headroom:2}") int dbHeadroom,
+            @Value("${app.limits.verification-connections:2}") int verificationConnections,
+            @Value("${app.limits.verification-wait-ms:2000}") long verificationWaitMillis,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize) {
+        this.enabled = virtualThreads && Runtime.version().feature() >= 21;
+        this.smtp = new Semaphore(smtpConnections, true);
+        this.database = new Semaphore(dbConnections > 0 ? dbConnections : Math.max(1, poolSize - dbHeadroom), true);
+        this.verification = new Semaphore(Math.max(1, verificationConnections), true);
+        this.verificationWait = Duration.ofMillis(verificationWaitMillis);
+        log.info("Concurrency limits {}", enabled ? "enabled for virtual threads" : "off (thread pools)");
+    }
+
+    /**
+     * Run an SMTP interaction once a mail server connection slot is free
+     */
+    public void withSmtp(Runnable action) {
+        try (Permit permit = smtpPermit()) {
+            action.run();
+        }
+    }
+
+    /**
+     * Wait for a mail server connection slot and hold it until the permit is
+     * closed, for sends that need the slot across more than the SMTP call
+     */
+    public Permit smtpPermit() {
+        if (!enabled) {
+            return () -> { };
+        }
+        acquire(smtp, "SMTP connection");
+        return smtp::release;
+    }
+
+    /**
+     * Run database work (outside a transaction) once a connection slot is free
+     */
+    public <T> T withDatabase(Supplier<T> action) {
+        if (!enabled) {
+            return action.get();
+        }
+        acquire(database, "database connection");
+        try {
+            return action.get();
+        } finally {
+            database.release();
+        }
+    }
+
+    /**
+     * Run a verification lookup on the verification budget, waiting at most
+     * app.limits.verification-wait-ms for a slot
+     */
+    public <T> T withVerificationDatabase(Supplier<T> action) {
+        return tryWithVerificationDatabase(action, verificationWait)
+                .orElseThrow(() -> new RuntimeException("Verification is busy, please try again"));
+    }
+
+    /**
+     * Like {@link #withVerificationDatabase}, but gives up after wait instead of throwing
+     *
+     * @return the result, or empty if no slot was free in time
+     */
+    public <T> Optional<T> tryWithVerificationDatabase(Supplier<T> action, Duration wait) {
+        if (!enabled) {
+            return Optional.ofNullable(action.get());
+        }
+        try {
+            if (!verification.tryAcquire(wait.toNanos(), TimeUnit.NANOSECONDS)) {
+                return Optional.empty();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        }
+        try {
+            return Optional.ofNullable(action.get());
+        } finally {
+            verification.release();
+        }
+    }
+
+    private static void acquire(Semaphore semaphore, String resource) {
+        try {
+            semaphore.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a " + resource, e);
+        }
+    }
+}
@@ -7,16 +7,20 @@ import com.certificate.repository.CertificateRepository;
 import com.certificate.repository.ParticipantRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import jakarta.mail.internet.MimeMessage;
 import java.io.File;
-import java.nio.file.Files;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongConsumer;
 
 @Slf4j
 @Service
@@ -27,114 +31,147 @@ public class EmailDispatchService {
     private final CertificateRepository certificateRepository;
     private final ParticipantRepository participantRepository;
     private final EventService eventService;
+    private final EventCounterService eventCounterService;
+    private final CertificateRenderer certificateRenderer;
+    private final ConcurrencyLimits concurrencyLimits;
+    @Qualifier("emailExecutor")
+    private final TaskExecutor emailExecutor;
 
     @org.springframework.beans.factory.annotation.Value("${spring.mail.username}")
     private String mailFrom;
 
     /**
-     * Sends a batch of emails asynchronously by triggering individual tasks.
-     * This maximizes parallelism across the entire thread pool.
+     * Update email queued for a batch of participants
      */
-    public void sendEmailsBatchAsync(java.util.List<Long> certificateIds, Long eventId) {
+    public record UpdateEmail(String subject, String content, String organizerName) {
+    }
+
+    /**
+     * Sends a batch of emails as individual tasks on the email executor. When
+     * its queue is full the caller sends inline, which slows the producer down
+     * instead of dropping emails. Each certificate is passed to {@code sent}
+     * once its email went out, so the caller can checkpoint it; sends that have
+     * not started once {@code cancelled} is true are left for the next attempt.
+     *
+     * @return future completing once every email was sent, marked FAILED or skipped
+     */
+    public CompletableFuture<Void> sendEmails(List<Long> certificateIds, Long eventId, LongConsumer sent,
+            BooleanSupplier cancelled) {
         log.info("Triggering independent async sends for {} certificates in event {}", certificateIds.size(), eventId);
 
         // Fetch event once to pass to avoid redundant DB hits in threads
         Event event = eventId != null ? eventService.getEventByIdInternal(eventId) : null;
 
-        for (Long certId : certificateIds) {
-            // Trigger each as an independent async task
-            sendEmailAsyncInternal(certId, event);
-        }
-    }
-
-    @Async("taskExecutor")
-    public void sendEmailAsyncInternal(Long certificateId, Event event) {
-        sendEmailInternal(certificateId, event);
-    }
-
-    @Async("taskExecutor")
-    public void sendEmailAsync(Long certificateId, String senderEmail) {
-        sendEmailInternal(certificateId, null);
+        return CompletableFuture.allOf(certificateIds.stream()
+                .map(certId -> CompletableFuture.runAsync(() -> {
+                    if (!cancelled.getAsBoolean()) {
+                        sendEmailInternal(certId, event, sent);
+                    }
+                }, emailExecutor))
+                .toArray(CompletableFuture[]::new));
     }
 
-    private void sendEmailInternal(Long certificateId, Event preloadedEvent) {
+    private void sendEmailInternal(Long certificateId, Event preloadedEvent, LongConsumer sent) {
         log.info("Processing email for certificate: {}", certificateId);
-        Certificate certificate = certificateRepository.findById(certificateId).orElse(null);
+        Certificate certificate = concurrencyLimits
+                .withDatabase(() -> certificateRepository.findById(certificateId).orElse(null));
         if (certificate == null || !"GENERATED".equals(certificate.getGenerationStatus()))
             return;
 
         try {
-            certificate.setEmailStatus("SENDING");
-            certificateRepository.saveAndFlush(certificate);
-
-            Participant participant = participantRepository.findById(certificate.getParticipantId())
-                    .orElseThrow(() -> new RuntimeException("Participant not found"));
+            Participant participant = concurrencyLimits.withDatabase(() -> {
+                String previousStatus = certificate.getEmailStatus();
+                certificate.setEmailStatus("SENDING");
+                certificateRepository.saveAndFlush(certificate);
+                eventCounterService.emailStatusChanged(certificate.getEventId(), previousStatus, "SENDING");
+
+                return participantRepository.findById(certificate.getParticipantId())
+                        .orElseThrow(() -> new RuntimeException("Participant not found"));
+            });
 
             Event event = preloadedEvent != null ? preloadedEvent
-                    : eventService.getEventByIdInternal(certificate.getEventId());
-
-            File file = new File(certificate.getFilePath());
-            if (!file.exists())
-                return;
-            byte[] certData = Files.readAllBytes(file.toPath());
+                    : concurrencyLimits
+                            .withDatabase(() -> eventService.getEventByIdInternal(certificate.getEventId()));
 
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            helper.setFrom(mailFrom);
-            helper.setTo(participant.getEmail());
-            helper.setSubject("Certificate: Bhartiayam '25 - " + event.getEventName());
+            // Take the SMTP slot before loading the PDF, so sends waiting for a slot hold no attachment
+            try (ConcurrencyLimits.Permit smtpSlot = concurrencyLimits.smtpPermit()) {
+                byte[] certData = certificateRenderer.getPdf(certificate);
 
-            String content = "We're pleased to share your Certificate of Participation for <b>Bharatiyam '25</b> organized by <b>BVDUCOEP</b>. "
-                    +
-                    "Thank you for your enthusiasm and active participation throughout the event.<br/><br/>" +
-                    "Please find your certificate attached to this email. You may download and print it for your records. "
-                    +
-                    "Once again, thank you for being a part of <b>Bharatiyam '25</b>. We wish you all the very best.";
+                MimeMessage message = mailSender.createMimeMessage();
+                MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+                helper.setFrom(mailFrom);
+                helper.setTo(participant.getEmail());
+                helper.setSubject("Certificate: Bhartiayam '25 - " + event.getEventName());
 
-            String htmlBody = generateBrandedHtml(participant.getName(), "Bhartiayam '25 Certificate", content);
+                String content = "We're pleased to share your Certificate of Participation for <b>Bharatiyam '25</b> organized by <b>BVDUCOEP</b>. "
+                        +
+                        "Thank you for your enthusiasm and active participation throughout the event.<br/><br/>" +
+                        "Please find your certificate attached to this email. You may download and print it for your records. "
+                        +
+                        "Once again, thank you for being a part of <b>Bharatiyam '25</b>. We wish you all the very best.";
 
-            helper.setText(htmlBody, true);
-            helper.addAttachment(file.getName(), new ByteArrayResource(certData));
+                String htmlBody = generateBrandedHtml(participant.getName(), "Bhartiayam '25 Certificate", content);
 
-            attachBanner(helper);
+                helper.setText(htmlBody, true);
+                helper.addAttachment(CertificateStore.fileName(certificate.getFilePath()),
+                        new ByteArrayResource(certData));
 
-            mailSender.send(message);
+                attachBanner(helper);
 
-            certificate.setEmailStatus("SENT");
-            certificate.setEmailSentAt(LocalDateTime.now());
-            certificateRepository.saveAndFlush(certificate);
+                mailSender.send(message);
+            }
+            checkpoint(sent, certificateId);
+
+            concurrencyLimits.withDatabase(() -> {
+                certificate.setEmailStatus("SENT");
+                certificate.setEmailSentAt(LocalDateTime.now());
+                certificateRepository.saveAndFlush(certificate);
+                eventCounterService.emailStatusChanged(certificate.getEventId(), "SENDING", "SENT");
+                return null;
+            });
         } catch (Exception e) {
             log.error("Failed to send email for cert: " + certificateId, e);
-            certificateRepository.findById(certificateId).ifPresent(cert -> {
-                cert.setEmailStatus("FAILED");
-                cert.setErrorMessage(e.getMessage());
-                certificateRepository.saveAndFlush(cert);
+            concurrencyLimits.withDatabase(() -> {
+                certificateRepository.findById(certificateId).ifPresent(cert -> {
+                    String previousStatus = cert.getEmailStatus();
+                    cert.setEmailStatus("FAILED");
+                    cert.setErrorMessage(e.getMessage());
+                    certificateRepository.saveAndFlush(cert);
+                    eventCounterService.emailStatusChanged(cert.getEventId(), previousStatus, "FAILED");
+                });
+                return null;
             });
         }
     }
 
-    @Async("taskExecutor")
-    public void sendUpdateEmailsBatchAsync(java.util.List<Long> participantIds, String subject, String content,
-            String organizerName) {
+    /**
+     * Sends an update email to each participant on the email executor, with the
+     * same skipping and cancellation as {@link #sendEmails}
+     *
+     * @return future completing once every email was sent, marked FAILED or skipped
+     */
+    public CompletableFuture<Void> sendUpdateEmails(List<Long> participantIds, UpdateEmail update,
+            LongConsumer sent, BooleanSupplier cancelled) {
         log.info("Starting batch update email send for {} participants", participantIds.size());
-        for (Long id : participantIds) {
-            try {
-                sendUpdateEmailAsync(id, subject, content, organizerName);
-            } catch (Exception e) {
-                log.error("Error triggering update email for participant {}", id, e);
-            }
-        }
+        return CompletableFuture.allOf(participantIds.stream()
+                .map(id -> CompletableFuture.runAsync(() -> {
+                    if (!cancelled.getAsBoolean()) {
+                        sendUpdateEmail(id, update.subject(), update.content(), update.organizerName(), sent);
+                    }
+                }, emailExecutor))
+                .toArray(CompletableFuture[]::new));
     }
 
-    @Async("taskExecutor")
-    public void sendUpdateEmailAsync(Long participantId, String subject, String content, String organizerName) {
-        Participant participant = participantRepository.findById(participantId).orElse(null);
+    private void sendUpdateEmail(Long participantId, String subject, String content, String organizerName,
+            LongConsumer sent) {
+        Participant participant = concurrencyLimits
+                .withDatabase(() -> participantRepository.findById(participantId).orElse(null));
         if (participant == null)
             return;
 
         try {
             participant.setUpdateEmailStatus("SENDING");
-            participantRepository.saveAndFlush(participant);
+            concurrencyLimits.withDatabase(() -> participantRepository.saveAndFlush(participant));
 
             MimeMessage message = mailSender.createMimeMessage();
             MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
@@ -148,15 +185,31 @@ public class EmailDispatchService {
 
             attachBanner(helper);
 
-            mailSender.send(message);
+            concurrencyLimits.withSmtp(() -> mailSender.send(message));
+            checkpoint(sent, participantId);
 
             participant.setUpdateEmailStatus("SENT");
-            participantRepository.saveAndFlush(participant);
+            concurrencyLimits.withDatabase(() -> participantRepository.saveAndFlush(participant));
             log.info("Update email sent successfully to: {}", participant.getEmail());
         } catch (Exception e) {
             log.error("Failed to send update email to: " + participant.getEmail(), e);
             participant.setUpdateEmailStatus("FAILED");
-            participantRepository.saveAndFlush(participant);
+            concurrencyLimits.withDatabase(() -> participantRepository.saveAndFlush(participant));
+        }
+    }
+
+    /**
+     * Report a delivered email to the caller's checkpoint as soon as the server
+     * accepted it. A failure there is only logged, since the email did go out.
+     */
+    private void checkpoint(LongConsumer sent, Long id) {
+        try {
+            concurrencyLimits.withDatabase(() -> {
+                sent.accept(id);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            log.warn("Failed to checkpoint sent email {}: {}", id, e.getMessage());
         }
     }
 
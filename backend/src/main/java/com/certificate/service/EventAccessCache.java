@@ -0,0 +1,94 @@
+package com.certificate.service;
+
+import com.certificate.entity.Event;
+import com.certificate.util.BoundedTtlCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Bounded LRU cache of positive event access decisions keyed by (userId,
+ * eventId), holding the event that was authorized. Entries expire after a TTL
+ * and are evicted explicitly whenever collaboration membership or the event
+ * itself changes, on this node and over the {@link ClusterBus} on the others.
+ */
+@Component
+public class EventAccessCache {
+
+    private record Key(Long userId, Long eventId) {
+    }
+
+    private static final String INVALIDATE = "event-access";
+    private static final String INVALIDATE_EVENT = "event-access-event";
+
+    private final BoundedTtlCache<Key, Event> entries;
+    private final ClusterBus clusterBus;
+
+    public EventAccessCache(ClusterBus clusterBus,
+            @Value("${app.cache.event-access.max-size:10000}") int maxSize,
+            @Value("${app.cache.event-access.ttl-seconds:300}") long ttlSeconds) {
+        this.entries = new BoundedTtlCache<>(maxSize, Duration.ofSeconds(ttlSeconds));
+        this.clusterBus = clusterBus;
+        clusterBus.subscribe(INVALIDATE, key -> {
+            String[] ids = key.split(":");
+            entries.remove(new Key(Long.valueOf(ids[0]), Long.valueOf(ids[1])));
+        });
+        clusterBus.subscribe(INVALIDATE_EVENT, eventId -> evictEvent(Long.valueOf(eventId)));
+        clusterBus.onResync(entries::clear);
+    }
+
+    /**
+     * Cached event for a user who was already granted access, or null
+     */
+    public Event get(Long userId, Long eventId) {
+        Event event = entries.get(new Key(userId, eventId));
+        return event != null ? copy(event) : null;
+    }
+
+    public void put(Long userId, Long eventId, Event event) {
+        entries.put(new Key(userId, eventId), copy(event));
+    }
+
+    /**
+     * Drop the decision for one user on one event, now and again after the
+     * current transaction commits so a concurrent read cannot re-cache stale state.
+     */
+    public void invalidate(Long userId, Long eventId) {
+        runNowAndAfterCommit(() -> entries.remove(new Key(userId, eventId)));
+        clusterBus.publish(INVALIDATE, userId + ":" + eventId);
+    }
+
+    /**
+     * Drop every user's decision for an event (event updated or deleted)
+     */
+    public void invalidateEvent(Long eventId) {
+        runNowAndAfterCommit(() -> evictEvent(eventId));
+        clusterBus.publish(INVALIDATE_EVENT, String.valueOf(eventId));
+    }
+
+    private void evictEvent(Long eventId) {
+        entries.removeIf(key -> key.eventId().equals(eventId));
+    }
+
+    private void runNowAndAfterCommit(Runnable action) {
+        action.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        }
+    }
+
+    // Callers modify the returned event (e.g. updateEvent), so never share the cached instance
+    private static Event copy(Event event) {
+        return new Event(event.getId(), event.getEventName(), event.getEventDate(), event.getOrganizerName(),
+                event.getInstituteName(), event.getOrganizerId(), event.getImageEncoding(), event.getJpegQuality(),
+                event.getImageDpi(), event.getCreatedAt(), event.getUpdatedAt());
+    }
+}
@@ -0,0 +1,135 @@
+package com.certificate.service;
+
+import com.certificate.entity.EventCounter;
+import com.certificate.repository.EventCounterRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Keeps the per-event participant and status counters in step with the
+ * participants and certificates tables. Callers report each status transition
+ * (or accumulate a {@link Delta} for bulk work) in the same transaction as the
+ * change itself.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EventCounterService {
+
+    private final EventCounterRepository eventCounterRepository;
+
+    /**
+     * Signed changes to one event's counters, accumulated in memory and applied
+     * with a single upsert
+     */
+    public static class Delta {
+        private long participants;
+        private long generated;
+        private long generationFailed;
+        private long emailsSent;
+        private long emailsFailed;
+        private long emailsPending;
+
+        public void participants(long count) {
+            participants += count;
+        }
+
+        public void certificateAdded(String generationStatus, String emailStatus) {
+            generation(generationStatus, 1);
+            email(emailStatus, 1);
+        }
+
+        public void certificateRemoved(String generationStatus, String emailStatus) {
+            generation(generationStatus, -1);
+            email(emailStatus, -1);
+        }
+
+        public void emailStatusChanged(String from, String to) {
+            email(from, -1);
+            email(to, 1);
+        }
+
+        public void generationStatusChanged(String from, String to) {
+            generation(from, -1);
+            generation(to, 1);
+        }
+
+        private void generation(String status, int sign) {
+            if ("GENERATED".equals(status)) {
+                generated += sign;
+            } else if ("FAILED".equals(status)) {
+                generationFailed += sign;
+            }
+        }
+
+        private void email(String status, int sign) {
+            if ("SENT".equals(status)) {
+                emailsSent += sign;
+            } else if ("FAILED".equals(status)) {
+                emailsFailed += sign;
+            } else if ("SENDING".equals(status)) {
+                emailsPending += sign;
+            }
+        }
+
+        boolean isEmpty() {
+            return participants == 0 && generated == 0 && generationFailed == 0 && emailsSent == 0
+                    && emailsFailed == 0 && emailsPending == 0;
+        }
+    }
+
+    /**
+     * Current counters for an event (all zero if nothing was recorded yet)
+     */
+    public EventCounter getCounters(Long eventId) {
+        return eventCounterRepository.findById(eventId).orElseGet(() -> {
+            EventCounter counters = new EventCounter();
+            counters.setEventId(eventId);
+            return counters;
+        });
+    }
+
+    @Transactional
+    public void apply(Long eventId, Delta delta) {
+        if (delta.isEmpty()) {
+            return;
+        }
+        eventCounterRepository.addDeltas(eventId, delta.participants, delta.generated, delta.generationFailed,
+                delta.emailsSent, delta.emailsFailed, delta.emailsPending);
+    }
+
+    @Transactional
+    public void participantsChanged(Long eventId, long count) {
+        Delta delta = new Delta();
+        delta.participants(count);
+        apply(eventId, delta);
+    }
+
+    @Transactional
+    public void emailStatusChanged(Long eventId, String from, String to) {
+        Delta delta = new Delta();
+        delta.emailStatusChanged(from, to);
+        apply(eventId, delta);
+    }
+
+    /**
+     * Seed the counters from the source tables the first time the application
+     * starts with them empty (e.g. right after upgrading).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuildIfEmpty() {
+        try {
+            if (eventCounterRepository.count() == 0) {
+                int rows = eventCounterRepository.rebuild(null);
+                log.info("Rebuilt event counters ({} rows)", rows);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to rebuild event counters: {}", e.getMessage());
+        }
+    }
+}
@@ -1,15 +1,26 @@
 package com.certificate.service;
 
+import com.certificate.config.SecondLevelCacheSync;
 import com.certificate.dto.EventRequest;
 import com.certificate.entity.Event;
-import com.certificate.entity.Organizer;
+import com.certificate.entity.EventCollaborator;
+import com.certificate.entity.Template;
+import com.certificate.repository.CertificateMonthlyStatRepository;
 import com.certificate.repository.CertificateRepository;
+import com.certificate.repository.EventCounterRepository;
+import com.certificate.repository.TemplateBlobRepository;
 import com.certificate.repository.TemplateRepository;
+import com.certificate.repository.EventLogRepository;
 import com.certificate.repository.EventRepository;
+import com.certificate.repository.MessageRepository;
 import com.certificate.repository.ParticipantRepository;
+import com.certificate.repository.WorkTaskRepository;
+import com.certificate.service.OrganizerIdentityCache.Identity;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
 
@@ -20,28 +31,40 @@ public class EventService {
     private final EventRepository eventRepository;
     private final ParticipantRepository participantRepository;
     private final CertificateRepository certificateRepository;
+    private final CertificateMonthlyStatRepository certificateMonthlyStatRepository;
     private final TemplateRepository templateRepository;
+    private final TemplateBlobRepository templateBlobRepository;
     private final AuthService authService;
     private final CollaborationService collaborationService;
     private final com.certificate.repository.EventCollaboratorRepository eventCollaboratorRepository;
     private final com.certificate.repository.CollaborationRequestRepository collaborationRequestRepository;
+    private final EventLogRepository eventLogRepository;
+    private final MessageRepository messageRepository;
+    private final CertificateFileCleanupService certificateFileCleanupService;
+    private final MessageNotificationService messageNotificationService;
+    private final EventAccessCache eventAccessCache;
+    private final EventCounterRepository eventCounterRepository;
+    private final VerificationCache verificationCache;
+    private final WorkTaskRepository workTaskRepository;
+    private final SecondLevelCacheSync secondLevelCacheSync;
 
     public Event createEvent(EventRequest request, String email) {
-        Organizer organizer = authService.getOrganizerByEmail(email);
+        Identity organizer = authService.getIdentityByEmail(email);
 
         Event event = new Event();
         event.setEventName(request.getEventName());
         event.setEventDate(request.getEventDate());
         event.setOrganizerName(request.getOrganizerName());
         event.setInstituteName(request.getInstituteName());
-        event.setOrganizerId(organizer.getId());
+        event.setOrganizerId(organizer.id());
+        applyImageEncoding(event, request);
 
         return eventRepository.save(event);
     }
 
     public List<Event> getAllEvents(String email) {
-        Organizer organizer = authService.getOrganizerByEmail(email);
-        List<Event> ownedEvents = eventRepository.findByOrganizerId(organizer.getId());
+        Identity organizer = authService.getIdentityByEmail(email);
+        List<Event> ownedEvents = eventRepository.findByOrganizerId(organizer.id());
 
         // Add collaborated events
         List<Long> collaboratedEventIds = collaborationService.getCollaboratedEventIds(email);
@@ -70,19 +93,25 @@ public class EventService {
     }
 
     public Event getEventById(Long eventId, String email) {
+        Identity organizer = authService.getIdentityByEmail(email);
+
+        Event cached = eventAccessCache.get(organizer.id(), eventId);
+        if (cached != null) {
+            return cached;
+        }
+
         Event event = eventRepository.findById(eventId)
                 .orElseThrow(() -> new RuntimeException("Event not found"));
 
-        Organizer organizer = authService.getOrganizerByEmail(email);
-
         // Check if user is owner OR collaborator
-        boolean isOwner = event.getOrganizerId().equals(organizer.getId());
-        boolean isCollaborator = collaborationService.isCollaborator(eventId, email);
+        boolean isOwner = event.getOrganizerId().equals(organizer.id());
+        boolean isCollaborator = !isOwner && collaborationService.isCollaborator(eventId, organizer.id());
 
         if (!isOwner && !isCollaborator) {
             throw new RuntimeException("Unauthorized access to event");
         }
 
+        eventAccessCache.put(organizer.id(), eventId, event);
         return event;
     }
 
@@ -93,8 +122,38 @@ public class EventService {
         event.setEventDate(request.getEventDate());
         event.setOrganizerName(request.getOrganizerName());
         event.setInstituteName(request.getInstituteName());
+        applyImageEncoding(event, request);
 
-        return eventRepository.save(event);
+        Event saved = eventRepository.save(event);
+        eventAccessCache.invalidateEvent(eventId);
+        verificationCache.invalidateEvent(eventId);
+        return saved;
+    }
+
+    /**
+     * Copy the PDF image encoding policy from the request; fields left out keep
+     * their current value
+     */
+    private void applyImageEncoding(Event event, EventRequest request) {
+        if (request.getImageEncoding() != null) {
+            String encoding = request.getImageEncoding().toUpperCase();
+            if (!encoding.equals("LOSSLESS") && !encoding.equals("JPEG")) {
+                throw new IllegalArgumentException("Image encoding must be LOSSLESS or JPEG");
+            }
+            event.setImageEncoding(encoding);
+        }
+        if (request.getJpegQuality() != null) {
+            if (request.getJpegQuality() <= 0 || request.getJpegQuality() > 1) {
+                throw new IllegalArgumentException("JPEG quality must be between 0 and 1");
+            }
+            event.setJpegQuality(request.getJpegQuality());
+        }
+        if (request.getImageDpi() != null) {
+            if (request.getImageDpi() < 72 || request.getImageDpi() > 600) {
+                throw new IllegalArgumentException("Image DPI must be between 72 and 600");
+            }
+            event.setImageDpi(request.getImageDpi());
+        }
     }
 
     @Transactional
@@ -102,23 +161,50 @@ public class EventService {
         Event event = eventRepository.findById(eventId)
                 .orElseThrow(() -> new RuntimeException("Event not found"));
 
-        Organizer organizer = authService.getOrganizerByEmail(email);
+        Identity organizer = authService.getIdentityByEmail(email);
 
         // Only owner can delete (not collaborators)
-        if (!event.getOrganizerId().equals(organizer.getId())) {
+        if (!event.getOrganizerId().equals(organizer.id())) {
             throw new RuntimeException("Only event owner can delete the event");
         }
 
-        // Manual cascading deletion
+        // Capture what has to be cleaned up outside the database before the rows go
+        List<String> certificateFiles = certificateRepository.findFilePathsByEventId(eventId);
+        List<String> templateHashes = templateRepository.findImageHashesByEventId(eventId);
+
+        // Manual cascading deletion, one set-based DELETE per table
         certificateRepository.deleteByEventId(eventId);
+        certificateMonthlyStatRepository.deleteByEventId(eventId);
+        eventCounterRepository.deleteByEventId(eventId);
         participantRepository.deleteByEventId(eventId);
-        templateRepository.deleteAll(templateRepository.findByEventId(eventId).stream().toList());
+        templateRepository.deleteByEventId(eventId);
+        templateHashes.stream()
+                .filter(java.util.Objects::nonNull)
+                .forEach(templateBlobRepository::deleteIfUnreferenced);
 
         // Delete collaboration data
-        eventCollaboratorRepository.findByEventId(eventId).forEach(eventCollaboratorRepository::delete);
-        collaborationRequestRepository.findByEventId(eventId).forEach(collaborationRequestRepository::delete);
+        eventCollaboratorRepository.deleteByEventId(eventId);
+        collaborationRequestRepository.deleteByEventId(eventId);
+        eventLogRepository.deleteByEventId(eventId);
+        workTaskRepository.deleteByEventId(eventId);
+        List<Object[]> unreadMessages = messageRepository.countUnreadByEventIdGroupedByReceiver(eventId);
+        messageRepository.deleteByEventId(eventId);
+        messageNotificationService.messagesDeleted(unreadMessages);
 
         eventRepository.delete(event);
+        eventAccessCache.invalidateEvent(eventId);
+        verificationCache.invalidateEvent(eventId);
+        // The bulk deletes above only cleared this node's second-level cache
+        secondLevelCacheSync.evictEverywhere(Template.class);
+        secondLevelCacheSync.evictEverywhere(EventCollaborator.class);
+
+        // Remove certificate files only once the deletion has committed
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                certificateFileCleanupService.deleteFilesAsync(certificateFiles);
+            }
+        });
     }
 
     /**
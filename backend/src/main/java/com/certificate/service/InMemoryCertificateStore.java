@@ -0,0 +1,49 @@
+package com.certificate.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-local certificate store for tests and local experiments
+ * ({@code app.storage.type=memory}). Contents are lost on restart.
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "memory")
+public class InMemoryCertificateStore implements CertificateStore {
+
+    private final Map<String, byte[]> files = new ConcurrentHashMap<>();
+
+    @Override
+    public CompletableFuture<Void> store(String key, byte[] data, String contentType) {
+        files.put(key, data.clone());
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public byte[] read(String key) throws IOException {
+        byte[] data = files.get(key);
+        if (data == null) {
+            throw new NoSuchFileException(key);
+        }
+        return data.clone();
+    }
+
+    @Override
+    public void delete(String key) {
+        files.remove(key);
+    }
+
+    public int size() {
+        return files.size();
+    }
+
+    public void clear() {
+        files.clear();
+    }
+}
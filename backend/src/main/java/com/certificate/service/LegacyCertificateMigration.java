@@ -0,0 +1,112 @@
+package com.certificate.service;
+
+import com.certificate.entity.Certificate;
+import com.certificate.repository.CertificateRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Moves certificates written before the store existed (local paths such as
+ * {@code ./certificates/<event>/<file>}) into the Supabase bucket. Each batch
+ * is streamed from disk with overlapping uploads, then the rows are pointed at
+ * their new keys. Opt-in with {@code app.storage.migrate-legacy=true}; only the
+ * files present on this node are moved, and the local copies are kept.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "supabase")
+public class LegacyCertificateMigration {
+
+    private final CertificateRepository certificateRepository;
+    private final SupabaseStorageService storageService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+
+    public LegacyCertificateMigration(CertificateRepository certificateRepository,
+            SupabaseStorageService storageService, TransactionTemplate transactionTemplate,
+            @Value("${app.storage.migrate-legacy:false}") boolean enabled,
+            @Value("${app.storage.migrate-batch-size:200}") int batchSize) {
+        this.certificateRepository = certificateRepository;
+        this.storageService = storageService;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    @Async("maintenanceExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        if (!enabled) {
+            return;
+        }
+
+        long afterId = 0;
+        int moved = 0;
+        int failedBatches = 0;
+        List<Certificate> page;
+        do {
+            page = certificateRepository.findUnkeyedAfter(afterId, PageRequest.of(0, batchSize));
+            Map<String, Path> files = new LinkedHashMap<>();
+            Map<String, Certificate> byKey = new LinkedHashMap<>();
+            for (Certificate certificate : page) {
+                afterId = certificate.getId();
+                String previous = certificate.getFilePath();
+                Path file = CertificateStore.isLegacyPath(previous) ? CertificateStore.legacyPath(previous) : null;
+                if (file == null || !Files.isRegularFile(file)) {
+                    continue;
+                }
+                String key = keyFor(certificate, file);
+                files.put(key, file);
+                byKey.put(key, certificate);
+            }
+            if (files.isEmpty()) {
+                continue;
+            }
+
+            try {
+                storageService.uploadAllAsync(files).join();
+            } catch (CompletionException e) {
+                // Uploads are upserts, so the next run simply sends this batch again
+                failedBatches++;
+                log.warn("Failed to move {} legacy certificates to storage: {}", files.size(),
+                        e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+                continue;
+            }
+            moved += transactionTemplate.execute(tx -> {
+                int updated = 0;
+                for (Map.Entry<String, Certificate> entry : byKey.entrySet()) {
+                    updated += certificateRepository.moveFile(entry.getValue().getId(),
+                            entry.getValue().getFilePath(), entry.getKey());
+                }
+                return updated;
+            });
+        } while (page.size() == batchSize);
+
+        log.info("Moved {} legacy certificates to storage ({} batches failed)", moved, failedBatches);
+    }
+
+    // Same layout as newly issued certificates: <shard>/<eventId>/<name>_<verification id>.pdf
+    private static String keyFor(Certificate certificate, Path file) {
+        String name = file.getFileName().toString();
+        if (certificate.getVerificationId() != null && name.endsWith(".pdf")
+                && !CertificateStore.VERIFICATION_SUFFIX.matcher(name).find()) {
+            name = name.substring(0, name.length() - 4) + "_" + certificate.getVerificationId() + ".pdf";
+        }
+        return CertificateStore.keyFor(certificate.getEventId(), name);
+    }
+}
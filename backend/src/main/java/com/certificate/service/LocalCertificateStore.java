@@ -0,0 +1,74 @@
+package com.certificate.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Certificate store on the local file system. Files are written to a temporary
+ * file in the target folder and atomically renamed into place, so readers
+ * never observe a partially written certificate.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "local", matchIfMissing = true)
+public class LocalCertificateStore implements CertificateStore {
+
+    private final Path root;
+
+    public LocalCertificateStore(@Value("${certificate.storage.path:./certificates/}") String rootPath) {
+        this.root = Paths.get(rootPath).toAbsolutePath().normalize();
+    }
+
+    @Override
+    public CompletableFuture<Void> store(String key, byte[] data, String contentType) {
+        try {
+            Path target = resolve(key);
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), ".upload-", ".tmp");
+            try {
+                Files.write(temp, data);
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            return CompletableFuture.completedFuture(null);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public byte[] read(String key) throws IOException {
+        return Files.readAllBytes(resolve(key));
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Path file = resolve(key);
+        Files.deleteIfExists(file);
+
+        // Drop the event folder once its last file is gone
+        try {
+            Files.deleteIfExists(file.getParent());
+        } catch (DirectoryNotEmptyException e) {
+            // Other certificates remain
+        }
+    }
+
+    private Path resolve(String key) {
+        if (CertificateStore.isLegacyPath(key)) {
+            return CertificateStore.legacyPath(key);
+        }
+        Path path = root.resolve(key).normalize();
+        if (!path.startsWith(root)) {
+            throw new IllegalArgumentException("Invalid certificate key: " + key);
+        }
+        return path;
+    }
+}
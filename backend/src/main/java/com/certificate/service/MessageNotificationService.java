@@ -0,0 +1,206 @@
+package com.certificate.service;
+
+import com.certificate.dto.MessageDTO;
+import com.certificate.entity.Message;
+import com.certificate.repository.MessageRepository;
+import com.certificate.service.OrganizerIdentityCache.Identity;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user unread message counters held in memory and pushed to connected
+ * clients over Server-Sent Events. Counters are rebuilt with one grouped COUNT
+ * at startup and then kept current by {@link MessageService}. Every change is
+ * also sent over the {@link ClusterBus}, so the counters of the other nodes
+ * follow and a user's stream gets pushes whichever node it is connected to.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MessageNotificationService {
+
+    private static final long EMITTER_TIMEOUT_MS = 30 * 60 * 1000L;
+    private static final String MESSAGE_CREATED = "message-created";
+    private static final String MESSAGES_READ = "messages-read";
+    private static final String ACTIVITY = "activity";
+
+    private final MessageRepository messageRepository;
+    private final OrganizerIdentityCache identityCache;
+    private final ClusterBus clusterBus;
+
+    private final Map<Long, AtomicLong> unreadCounts = new ConcurrentHashMap<>();
+    private final Map<Long, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+    private volatile boolean countersLoaded = false;
+
+    @PostConstruct
+    void joinCluster() {
+        clusterBus.subscribe(MESSAGE_CREATED, this::remoteMessageCreated);
+        clusterBus.subscribe(MESSAGES_READ, key -> {
+            String[] parts = key.split(":");
+            read(Long.valueOf(parts[0]), Integer.parseInt(parts[1]));
+        });
+        clusterBus.subscribe(ACTIVITY, userId -> broadcast(Long.valueOf(userId), ACTIVITY, ""));
+        clusterBus.onResync(() -> {
+            loadUnreadCounts();
+            emitters.keySet().forEach(userId -> broadcast(userId, "unread-count", getUnreadCount(userId)));
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadUnreadCounts() {
+        try {
+            unreadCounts.clear();
+            for (Object[] row : messageRepository.countUnreadGroupedByReceiver()) {
+                unreadCounts.put((Long) row[0], new AtomicLong(((Number) row[1]).longValue()));
+            }
+            countersLoaded = true;
+            log.info("Loaded unread message counters for {} users", unreadCounts.size());
+        } catch (Exception e) {
+            log.warn("Failed to load unread message counters: {}", e.getMessage());
+        }
+    }
+
+    public long getUnreadCount(Long userId) {
+        if (!countersLoaded) {
+            return messageRepository.countByReceiverIdAndIsReadFalse(userId);
+        }
+        AtomicLong count = unreadCounts.get(userId);
+        return count != null ? count.get() : 0L;
+    }
+
+    /**
+     * Open an event stream for a user. The current unread count is sent immediately.
+     */
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        emitters.computeIfAbsent(userId, id -> new CopyOnWriteArrayList<>()).add(emitter);
+
+        emitter.onCompletion(() -> removeEmitter(userId, emitter));
+        emitter.onTimeout(() -> removeEmitter(userId, emitter));
+        emitter.onError(e -> removeEmitter(userId, emitter));
+
+        send(userId, emitter, "unread-count", getUnreadCount(userId));
+        return emitter;
+    }
+
+    /**
+     * Count a new message for its receiver and push it, once the surrounding
+     * transaction (if any) has committed.
+     */
+    public void messageCreated(MessageDTO message) {
+        afterCommit(() -> created(message.getReceiverId(), message));
+        clusterBus.publish(MESSAGE_CREATED, message.getId() + ":" + message.getReceiverId());
+    }
+
+    // Every node counts it; the message itself is only loaded where the receiver is connected
+    private void remoteMessageCreated(String key) {
+        String[] ids = key.split(":");
+        Long receiverId = Long.valueOf(ids[1]);
+        MessageDTO message = !emitters.containsKey(receiverId) ? null
+                : messageRepository.findById(Long.valueOf(ids[0]))
+                        .map(m -> MessageService.toDTO(m, senderName(m)))
+                        .orElse(null);
+        created(receiverId, message);
+    }
+
+    private void created(Long receiverId, MessageDTO message) {
+        long count = unreadCounts.computeIfAbsent(receiverId, id -> new AtomicLong()).incrementAndGet();
+        if (message != null) {
+            broadcast(receiverId, "message", message);
+        }
+        broadcast(receiverId, "unread-count", count);
+    }
+
+    private String senderName(Message message) {
+        return identityCache.findById(message.getSenderId()).map(Identity::fullName).orElse("Unknown");
+    }
+
+    /**
+     * Subtract messages the receiver has just read and push the new count.
+     */
+    public void messagesRead(Long receiverId, int readCount) {
+        if (readCount <= 0) {
+            return;
+        }
+        afterCommit(() -> read(receiverId, readCount));
+        clusterBus.publish(MESSAGES_READ, receiverId + ":" + readCount);
+    }
+
+    private void read(Long receiverId, int readCount) {
+        long count = unreadCounts.computeIfAbsent(receiverId, id -> new AtomicLong())
+                .updateAndGet(current -> Math.max(0, current - readCount));
+        broadcast(receiverId, "unread-count", count);
+    }
+
+    /**
+     * Subtract unread messages that were deleted along with their event, given as
+     * rows of [receiverId, unreadCount].
+     */
+    public void messagesDeleted(List<Object[]> unreadByReceiver) {
+        for (Object[] row : unreadByReceiver) {
+            messagesRead((Long) row[0], ((Number) row[1]).intValue());
+        }
+    }
+
+    /**
+     * Tell a user's clients that their collaboration requests or activity feed
+     * changed, so they reload them instead of polling
+     */
+    public void activityChanged(Long userId) {
+        afterCommit(() -> broadcast(userId, ACTIVITY, ""));
+        clusterBus.publish(ACTIVITY, String.valueOf(userId));
+    }
+
+    private void broadcast(Long userId, String eventName, Object data) {
+        List<SseEmitter> userEmitters = emitters.get(userId);
+        if (userEmitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : userEmitters) {
+            send(userId, emitter, eventName, data);
+        }
+    }
+
+    private void send(Long userId, SseEmitter emitter, String eventName, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(eventName).data(data));
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; drop the emitter, the browser will reconnect
+            removeEmitter(userId, emitter);
+        }
+    }
+
+    private void removeEmitter(Long userId, SseEmitter emitter) {
+        emitters.computeIfPresent(userId, (id, list) -> {
+            list.remove(emitter);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -3,14 +3,16 @@ package com.certificate.service;
 import com.certificate.dto.MessageDTO;
 import com.certificate.dto.MessageRequest;
 import com.certificate.entity.Message;
-import com.certificate.entity.Organizer;
 import com.certificate.repository.MessageRepository;
-import com.certificate.repository.OrganizerRepository;
+import com.certificate.service.OrganizerIdentityCache.Identity;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -18,21 +20,23 @@ import java.util.stream.Collectors;
 public class MessageService {
 
     private final MessageRepository messageRepository;
-    private final OrganizerRepository organizerRepository;
+    private final OrganizerIdentityCache identityCache;
     private final AuthService authService;
     private final EventService eventService;
+    private final MessageNotificationService notificationService;
 
     @Transactional
     public void sendMessages(MessageRequest request, String senderEmail) {
-        Organizer sender = authService.getOrganizerByEmail(senderEmail);
+        Identity sender = authService.getIdentityByEmail(senderEmail);
 
         for (Long receiverId : request.getReceiverIds()) {
             Message message = new Message();
             message.setEventId(request.getEventId());
-            message.setSenderId(sender.getId());
+            message.setSenderId(sender.id());
             message.setReceiverId(receiverId);
             message.setContent(request.getContent());
-            messageRepository.save(message);
+            Message saved = messageRepository.save(message);
+            notificationService.messageCreated(toDTO(saved, sender.fullName()));
         }
     }
 
@@ -43,32 +47,49 @@ public class MessageService {
         }
 
         List<Message> messages = messageRepository.findByEventIdOrderByTimestampAsc(eventId);
-        return messages.stream().map(this::convertToDTO).collect(Collectors.toList());
+        return convertToDTOs(messages);
     }
 
     public long getUnreadCount(String receiverEmail) {
-        Organizer receiver = authService.getOrganizerByEmail(receiverEmail);
-        return messageRepository.findByReceiverIdAndIsReadFalse(receiver.getId()).size();
+        Identity receiver = authService.getIdentityByEmail(receiverEmail);
+        return notificationService.getUnreadCount(receiver.id());
     }
 
     public List<MessageDTO> getUnreadMessages(String receiverEmail) {
-        Organizer receiver = authService.getOrganizerByEmail(receiverEmail);
-        List<Message> unread = messageRepository.findByReceiverIdAndIsReadFalse(receiver.getId());
-        return unread.stream().map(this::convertToDTO).collect(Collectors.toList());
+        Identity receiver = authService.getIdentityByEmail(receiverEmail);
+        List<Message> unread = messageRepository.findByReceiverIdAndIsReadFalse(receiver.id());
+        return convertToDTOs(unread);
     }
 
     @Transactional
     public void markAsRead(Long eventId, String receiverEmail) {
-        Organizer receiver = authService.getOrganizerByEmail(receiverEmail);
-        List<Message> unread = messageRepository.findByEventIdAndReceiverIdAndIsReadFalse(eventId, receiver.getId());
-        unread.forEach(m -> m.setRead(true));
-        messageRepository.saveAll(unread);
+        Identity receiver = authService.getIdentityByEmail(receiverEmail);
+        int read = messageRepository.markReadByEventIdAndReceiverId(eventId, receiver.id());
+        notificationService.messagesRead(receiver.id(), read);
     }
 
-    private MessageDTO convertToDTO(Message message) {
-        Organizer sender = organizerRepository.findById(message.getSenderId()).orElse(null);
-        String senderName = sender != null ? sender.getFullName() : "Unknown";
+    /**
+     * Stream of new messages and unread-count updates for the current user
+     */
+    public SseEmitter subscribe(String userEmail) {
+        Identity user = authService.getIdentityByEmail(userEmail);
+        return notificationService.subscribe(user.id());
+    }
+
+    private List<MessageDTO> convertToDTOs(List<Message> messages) {
+        // Resolve all sender names with one query
+        Set<Long> senderIds = messages.stream().map(Message::getSenderId).collect(Collectors.toSet());
+        Map<Long, Identity> senders = senderIds.isEmpty() ? Map.of() : identityCache.findAllById(senderIds);
+
+        return messages.stream()
+                .map(m -> {
+                    Identity sender = senders.get(m.getSenderId());
+                    return toDTO(m, sender != null ? sender.fullName() : "Unknown");
+                })
+                .collect(Collectors.toList());
+    }
 
+    static MessageDTO toDTO(Message message, String senderName) {
         return new MessageDTO(
                 message.getId(),
                 message.getEventId(),
@@ -0,0 +1,132 @@
+package com.certificate.service;
+
+import com.certificate.entity.Organizer;
+import com.certificate.repository.OrganizerRepository;
+import com.certificate.util.BoundedTtlCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Shared cache of organizer identities (id, email, display name) used by the
+ * services that only need to resolve who a user is. Lookups by email or id hit
+ * the database once per TTL; bulk lookups fetch only the misses in one query.
+ * Invalidations reach the other nodes over the {@link ClusterBus}.
+ */
+@Component
+public class OrganizerIdentityCache {
+
+    public record Identity(Long id, String email, String fullName) {
+    }
+
+    private static final String INVALIDATE = "identity";
+
+    private final OrganizerRepository organizerRepository;
+    private final ClusterBus clusterBus;
+    private final BoundedTtlCache<String, Identity> byEmail;
+    private final BoundedTtlCache<Long, Identity> byId;
+
+    public OrganizerIdentityCache(OrganizerRepository organizerRepository, ClusterBus clusterBus,
+            @Value("${app.cache.identity.max-size:10000}") int maxSize,
+            @Value("${app.cache.identity.ttl-seconds:600}") long ttlSeconds) {
+        this.organizerRepository = organizerRepository;
+        this.clusterBus = clusterBus;
+        this.byEmail = new BoundedTtlCache<>(maxSize, Duration.ofSeconds(ttlSeconds));
+        this.byId = new BoundedTtlCache<>(maxSize, Duration.ofSeconds(ttlSeconds));
+        clusterBus.subscribe(INVALIDATE, key -> {
+            // "id:email", either part may be empty
+            String[] parts = key.split(":", 2);
+            evict(parts[0].isEmpty() ? null : Long.valueOf(parts[0]), parts[1].isEmpty() ? null : parts[1]);
+        });
+        clusterBus.onResync(() -> {
+            byEmail.clear();
+            byId.clear();
+        });
+    }
+
+    /**
+     * Identity for an email, or empty if no such organizer exists
+     */
+    public Optional<Identity> findByEmail(String email) {
+        Identity identity = byEmail.get(email);
+        if (identity != null) {
+            return Optional.of(identity);
+        }
+        return organizerRepository.findByEmail(email).map(this::put);
+    }
+
+    public Optional<Identity> findById(Long id) {
+        Identity identity = byId.get(id);
+        if (identity != null) {
+            return Optional.of(identity);
+        }
+        return organizerRepository.findById(id).map(this::put);
+    }
+
+    /**
+     * Identities for many ids, keyed by id. Cached entries cost nothing; the rest
+     * are loaded with a single query.
+     */
+    public Map<Long, Identity> findAllById(Collection<Long> ids) {
+        Map<Long, Identity> result = new HashMap<>();
+        Set<Long> missing = new HashSet<>();
+        for (Long id : ids) {
+            Identity identity = byId.get(id);
+            if (identity != null) {
+                result.put(id, identity);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            organizerRepository.findAllById(missing).forEach(o -> result.put(o.getId(), put(o)));
+        }
+        return result;
+    }
+
+    /**
+     * Identities for many emails, keyed by email; misses are loaded in one query
+     */
+    public Map<String, Identity> findAllByEmail(Collection<String> emails) {
+        Map<String, Identity> result = new HashMap<>();
+        Set<String> missing = new HashSet<>();
+        for (String email : emails) {
+            Identity identity = byEmail.get(email);
+            if (identity != null) {
+                result.put(email, identity);
+            } else {
+                missing.add(email);
+            }
+        }
+        if (!missing.isEmpty()) {
+            organizerRepository.findByEmailIn(missing).forEach(o -> result.put(o.getEmail(), put(o)));
+        }
+        return result;
+    }
+
+    /**
+     * Refresh the cached identity after an organizer is created or changed
+     */
+    public Identity put(Organizer organizer) {
+        Identity identity = new Identity(organizer.getId(), organizer.getEmail(), organizer.getFullName());
+        byEmail.put(identity.email(), identity);
+        byId.put(identity.id(), identity);
+        return identity;
+    }
+
+    public void invalidate(Long id, String email) {
+        evict(id, email);
+        clusterBus.publish(INVALIDATE, (id != null ? id : "") + ":" + (email != null ? email : ""));
+    }
+
+    private void evict(Long id, String email) {
+        if (id != null) {
+            byId.remove(id);
+        }
+        if (email != null) {
+            byEmail.remove(email);
+        }
+    }
+}
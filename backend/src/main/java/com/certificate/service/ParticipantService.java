@@ -20,6 +20,8 @@ public class ParticipantService {
     private final EventService eventService;
     private final FileParserUtil fileParserUtil;
     private final CollaborationService collaborationService;
+    private final VerificationCache verificationCache;
+    private final EventCounterService eventCounterService;
 
     @Transactional
     public List<ParticipantDTO> uploadParticipants(Long eventId, MultipartFile file, String email) throws Exception {
@@ -45,6 +47,7 @@ public class ParticipantService {
 
         if (!participantsToSave.isEmpty()) {
             participantRepository.saveAll(participantsToSave);
+            eventCounterService.participantsChanged(eventId, participantsToSave.size());
             collaborationService.logAction(eventId, email, "UPLOAD_PARTICIPANTS",
                     "Uploaded " + participantsToSave.size() + " participants");
         }
@@ -72,6 +75,8 @@ public class ParticipantService {
         eventService.getEventById(participant.getEventId(), email);
 
         participantRepository.delete(participant);
+        eventCounterService.participantsChanged(participant.getEventId(), -1);
+        verificationCache.invalidateEvent(participant.getEventId());
         collaborationService.logAction(participant.getEventId(), email, "REMOVE_PARTICIPANT",
                 "Removed participant: " + participant.getName());
     }
@@ -81,7 +86,9 @@ public class ParticipantService {
         // Verify event access
         eventService.getEventById(eventId, email);
 
-        participantRepository.deleteByEventId(eventId);
+        int removed = participantRepository.deleteByEventId(eventId);
+        eventCounterService.participantsChanged(eventId, -removed);
+        verificationCache.invalidateEvent(eventId);
         collaborationService.logAction(eventId, email, "CLEAR_PARTICIPANTS", "Removed all participants");
     }
 }
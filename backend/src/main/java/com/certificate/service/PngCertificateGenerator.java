@@ -5,16 +5,24 @@ import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.WritableRaster;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Iterator;
 
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.graphics.image.JPEGFactory;
 import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
 import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
 
@@ -31,19 +39,33 @@ public class PngCertificateGenerator {
     private static final int QR_SIZE = (int) (100 * SCALE_FACTOR); // QR code size
     private static final int QR_MARGIN = (int) (60 * SCALE_FACTOR); // QR margin (Increased to be inside border)
 
+    // Width of the prepared template; wider templates are scaled down to it, narrower ones doubled
+    static final int RENDER_WIDTH = (int) (1024 * SCALE_FACTOR);
+
+    // A4 landscape width in points; the page height follows the template's aspect ratio
+    private static final float PDF_WIDTH = 842;
+
     /**
-     * Generate certificate PDF by overlaying participant name and QR code on
-     * template
+     * How the certificate image is embedded in the PDF: LOSSLESS (Flate) or JPEG
+     * (DCT) at the given quality, optionally downsampled to a target DPI on the page
      */
-    public byte[] generateCertificatePdf(byte[] templateImage, String participantName, BufferedImage qrCode)
-            throws IOException {
-        // ... (Existing image generation logic reuse or refactor) ...
-        // For simplicity, we keep the image generation logic inside but write to PDF
+    public record ImageEncoding(String format, float jpegQuality, Integer dpi) {
+
+        public static final ImageEncoding LOSSLESS = new ImageEncoding("LOSSLESS", 0.85f, null);
 
-        // Load template image
+        public boolean jpeg() {
+            return "JPEG".equalsIgnoreCase(format);
+        }
+    }
+
+    /**
+     * Decode a template (or the default one when null) and normalize it to the
+     * render target, see {@link #prepareTemplate(BufferedImage)}
+     */
+    public BufferedImage prepareTemplate(byte[] templateImage) throws IOException {
         BufferedImage template;
         if (templateImage != null && templateImage.length > 0) {
-            template = ImageIO.read(new java.io.ByteArrayInputStream(templateImage));
+            template = ImageIO.read(new ByteArrayInputStream(templateImage));
         } else {
             template = loadDefaultTemplate();
         }
@@ -51,24 +73,103 @@ public class PngCertificateGenerator {
         if (template == null) {
             throw new IOException("Failed to load certificate template");
         }
+        return prepareTemplate(template);
+    }
 
-        // Scale template to high resolution
-        int scaledWidth = (int) (template.getWidth() * SCALE_FACTOR);
-        int scaledHeight = (int) (template.getHeight() * SCALE_FACTOR);
+    /**
+     * Template scaled to the high-resolution layout size: twice its size, but
+     * never wider than {@link #RENDER_WIDTH}. Templates without a single
+     * transparent pixel are flattened onto white as RGB, even when they carry an
+     * alpha channel. The result is only read afterwards, so one instance can be
+     * shared by concurrent renders.
+     */
+    public BufferedImage prepareTemplate(BufferedImage template) {
+        double scale = layoutScale(template.getWidth());
+        int scaledWidth = Math.max(1, (int) Math.round(template.getWidth() * scale));
+        int scaledHeight = Math.max(1, (int) Math.round(template.getHeight() * scale));
+        boolean hasAlpha = hasTransparentPixels(template);
 
-        BufferedImage scaledTemplate = new BufferedImage(scaledWidth, scaledHeight, BufferedImage.TYPE_INT_ARGB);
+        BufferedImage scaledTemplate = new BufferedImage(scaledWidth, scaledHeight,
+                hasAlpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
         Graphics2D g2dScale = scaledTemplate.createGraphics();
+        if (!hasAlpha) {
+            g2dScale.setColor(Color.WHITE);
+            g2dScale.fillRect(0, 0, scaledWidth, scaledHeight);
+        }
         g2dScale.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
         g2dScale.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
         g2dScale.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
         g2dScale.drawImage(template, 0, 0, scaledWidth, scaledHeight, null);
         g2dScale.dispose();
+        return scaledTemplate;
+    }
+
+    /**
+     * Whether any pixel is less than fully opaque. Many exported PNGs have an
+     * alpha channel that is opaque everywhere, so the color model alone is not
+     * enough; the scan stops at the first transparent pixel.
+     */
+    private static boolean hasTransparentPixels(BufferedImage image) {
+        if (image.getTransparency() == Transparency.OPAQUE) {
+            return false;
+        }
+        int width = image.getWidth();
+        int[] row = new int[width];
+        WritableRaster alpha = image.getAlphaRaster();
+        if (alpha != null) {
+            ColorModel colorModel = image.getColorModel();
+            int opaque = (1 << colorModel.getComponentSize(colorModel.getNumComponents() - 1)) - 1;
+            for (int y = 0; y < image.getHeight(); y++) {
+                alpha.getSamples(alpha.getMinX(), alpha.getMinY() + y, width, 1, 0, row);
+                for (int a : row) {
+                    if (a < opaque) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+        // Indexed images have no alpha raster
+        for (int y = 0; y < image.getHeight(); y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            for (int argb : row) {
+                if (argb >>> 24 != 0xFF) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Factor from template pixels to layout pixels for a template of the given width
+     */
+    private static double layoutScale(int templateWidth) {
+        return Math.min(SCALE_FACTOR, (double) RENDER_WIDTH / templateWidth);
+    }
+
+    /**
+     * Generate certificate PDF by overlaying participant name and QR code on a
+     * template normalized by {@link #prepareTemplate(BufferedImage)}
+     */
+    public byte[] generateCertificatePdf(BufferedImage preparedTemplate, String participantName,
+            BufferedImage qrCode, ImageEncoding encoding) throws IOException {
+        // Keep the alpha channel only when the template is really transparent (opaque
+        // ones are prepared as RGB) and the encoding can carry it; otherwise compose on
+        // white as RGB
+        int scaledWidth = preparedTemplate.getWidth();
+        int scaledHeight = preparedTemplate.getHeight();
+        boolean keepAlpha = preparedTemplate.getColorModel().hasAlpha() && !encoding.jpeg();
 
         // Create certificate image
-        BufferedImage certificate = new BufferedImage(scaledTemplate.getWidth(), scaledTemplate.getHeight(),
-                BufferedImage.TYPE_INT_ARGB);
+        BufferedImage certificate = new BufferedImage(scaledWidth, scaledHeight,
+                keepAlpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
         Graphics2D g2d = certificate.createGraphics();
-        g2d.drawImage(scaledTemplate, 0, 0, null);
+        if (!keepAlpha) {
+            g2d.setColor(Color.WHITE);
+            g2d.fillRect(0, 0, scaledWidth, scaledHeight);
+        }
+        g2d.drawImage(preparedTemplate, 0, 0, null);
 
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
         g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
@@ -88,7 +189,7 @@ public class PngCertificateGenerator {
 
         // QR Code
         if (qrCode != null) {
-            int qrX = scaledTemplate.getWidth() - QR_SIZE - QR_MARGIN;
+            int qrX = scaledWidth - QR_SIZE - QR_MARGIN;
             int qrY = QR_MARGIN;
             g2d.setColor(Color.WHITE);
             g2d.fillRect(qrX - 5, qrY - 5, QR_SIZE + 10, QR_SIZE + 10);
@@ -107,13 +208,16 @@ public class PngCertificateGenerator {
             // For now, let's make the PDF page size match the aspect ratio of the image
             // typically A4 Landscape is 842 x 595 points.
 
-            float pdfWidth = 842; // A4 Landscape width
+            float pdfWidth = PDF_WIDTH; // A4 Landscape width
             float pdfHeight = (pdfWidth / scaledWidth) * scaledHeight;
 
             PDPage page = new PDPage(new PDRectangle(pdfWidth, pdfHeight));
             doc.addPage(page);
 
-            PDImageXObject pdImage = LosslessFactory.createFromImage(doc, certificate);
+            BufferedImage embedded = downsample(certificate, encoding.dpi());
+            PDImageXObject pdImage = encoding.jpeg()
+                    ? JPEGFactory.createFromImage(doc, embedded, encoding.jpegQuality())
+                    : LosslessFactory.createFromImage(doc, embedded);
 
             try (PDPageContentStream contentStream = new PDPageContentStream(doc, page)) {
                 contentStream.drawImage(pdImage, 0, 0, pdfWidth, pdfHeight);
@@ -127,6 +231,102 @@ public class PngCertificateGenerator {
         }
     }
 
+    /**
+     * Scale the image down so it has at most the given DPI across the page
+     * width; unchanged when no DPI is set or the image is already smaller
+     */
+    private static BufferedImage downsample(BufferedImage image, Integer dpi) {
+        if (dpi == null) {
+            return image;
+        }
+        int targetWidth = Math.round(dpi * PDF_WIDTH / 72f);
+        if (targetWidth >= image.getWidth()) {
+            return image;
+        }
+        int targetHeight = Math.max(1, Math.round((float) image.getHeight() * targetWidth / image.getWidth()));
+        BufferedImage scaled = new BufferedImage(targetWidth, targetHeight, image.getType());
+        Graphics2D g2d = scaled.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+        g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g2d.drawImage(image, 0, 0, targetWidth, targetHeight, null);
+        g2d.dispose();
+        return scaled;
+    }
+
+    /**
+     * Low-resolution preview of a certificate, laid out exactly like the PDF but
+     * built on a cheap path: the template is decoded with source subsampling and
+     * scaled bilinearly straight to the target width. Pass a null QR code to
+     * preview a template.
+     */
+    public BufferedImage renderPreview(byte[] templateImage, String participantName, BufferedImage qrCode,
+            int width) throws IOException {
+        int sourceWidth;
+        int sourceHeight;
+        BufferedImage template;
+        if (templateImage != null && templateImage.length > 0) {
+            try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(templateImage))) {
+                Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+                if (!readers.hasNext()) {
+                    throw new IOException("Failed to load certificate template");
+                }
+                ImageReader reader = readers.next();
+                try {
+                    reader.setInput(input, true, true);
+                    sourceWidth = reader.getWidth(0);
+                    sourceHeight = reader.getHeight(0);
+                    ImageReadParam param = reader.getDefaultReadParam();
+                    int step = Math.max(1, sourceWidth / width);
+                    param.setSourceSubsampling(step, step, 0, 0);
+                    template = reader.read(0, param);
+                } finally {
+                    reader.dispose();
+                }
+            }
+        } else {
+            template = loadDefaultTemplate();
+            if (template == null) {
+                throw new IOException("Failed to load certificate template");
+            }
+            sourceWidth = template.getWidth();
+            sourceHeight = template.getHeight();
+        }
+
+        // Layout constants are in full-resolution PDF pixels
+        double factor = width / (sourceWidth * layoutScale(sourceWidth));
+        int height = Math.max(1, (int) Math.round(sourceHeight * (double) width / sourceWidth));
+
+        BufferedImage preview = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = preview.createGraphics();
+        g2d.setColor(Color.WHITE);
+        g2d.fillRect(0, 0, width, height);
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2d.drawImage(template, 0, 0, width, height, null);
+
+        if (participantName != null && !participantName.isEmpty()) {
+            Font nameFont = loadBestFont(Math.max(1, (int) Math.round(FONT_SIZE * factor)));
+            g2d.setFont(nameFont);
+            g2d.setColor(Color.BLACK);
+            int textWidth = g2d.getFontMetrics(nameFont).stringWidth(participantName);
+            g2d.drawString(participantName, (int) Math.round(NAME_CENTER_X * factor) - textWidth / 2,
+                    (int) Math.round(NAME_CENTER_Y * factor));
+        }
+
+        if (qrCode != null) {
+            int qrSize = (int) Math.round(QR_SIZE * factor);
+            int margin = (int) Math.round(QR_MARGIN * factor);
+            int pad = Math.max(1, (int) Math.round(5 * factor));
+            int qrX = width - qrSize - margin;
+            g2d.setColor(Color.WHITE);
+            g2d.fillRect(qrX - pad, margin - pad, qrSize + 2 * pad, qrSize + 2 * pad);
+            g2d.drawImage(qrCode, qrX, margin, qrSize, qrSize, null);
+        }
+
+        g2d.dispose();
+        return preview;
+    }
+
     /**
      * Load the best available font for the certificate
      */
@@ -0,0 +1,190 @@
+package com.certificate.service;
+
+import com.certificate.entity.Certificate;
+import com.certificate.entity.Participant;
+import com.certificate.entity.Template;
+import com.certificate.repository.CertificateRepository;
+import com.certificate.repository.ParticipantRepository;
+import com.certificate.util.ByteSizeLruCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Small PNG/JPEG previews of templates and issued certificates for the editing
+ * and browsing screens. Each preview is identified by a hash of everything it
+ * is rendered from (template content hash, participant or sample name,
+ * verification id, size and format); that hash is the cache key and the ETag,
+ * so a changed template or name yields a new preview and an unchanged one is
+ * served from memory. The ETag is worked out before rendering, so a request
+ * whose If-None-Match still matches never renders. A certificate preview uses
+ * the template its PDF was rendered with, which may be older than the event's
+ * current one.
+ */
+@Service
+public class PreviewService {
+
+    /**
+     * Encoded preview; data is null when the client's copy is still current
+     */
+    public record Preview(byte[] data, String contentType, String etag) {
+
+        public boolean notModified() {
+            return data == null;
+        }
+    }
+
+    private static final int MIN_WIDTH = 64;
+    private static final int MAX_WIDTH = 1024;
+    private static final float JPEG_QUALITY = 0.8f;
+
+    private final TemplateService templateService;
+    private final CertificateRepository certificateRepository;
+    private final ParticipantRepository participantRepository;
+    private final CertificateRenderer certificateRenderer;
+    private final PngCertificateGenerator pngGenerator;
+    private final ByteSizeLruCache<String> previews;
+
+    public PreviewService(TemplateService templateService, CertificateRepository certificateRepository,
+            ParticipantRepository participantRepository, CertificateRenderer certificateRenderer,
+            PngCertificateGenerator pngGenerator,
+            @Value("${app.preview.cache.max-bytes:16777216}") long maxBytes) {
+        this.templateService = templateService;
+        this.certificateRepository = certificateRepository;
+        this.participantRepository = participantRepository;
+        this.certificateRenderer = certificateRenderer;
+        this.pngGenerator = pngGenerator;
+        this.previews = new ByteSizeLruCache<>(maxBytes, false);
+    }
+
+    /**
+     * Template with a sample name at the position the certificate uses
+     *
+     * @param ifNoneMatch the request's If-None-Match header, may be null
+     */
+    public Preview templatePreview(Long eventId, String email, String sampleName, int width, String format,
+            String ifNoneMatch) throws IOException {
+        Template template = templateService.getTemplate(eventId, email); // Check access
+        String imageHash = template != null && template.getImageHash() != null ? template.getImageHash() : "default";
+        int size = clampWidth(width);
+        String type = contentType(format);
+        String etag = hash("template", imageHash, sampleName, String.valueOf(size), type);
+        if (matches(etag, ifNoneMatch)) {
+            return new Preview(null, type, etag);
+        }
+
+        byte[] cached = previews.get(etag);
+        if (cached == null) {
+            cached = encode(pngGenerator.renderPreview(templateImage(imageHash), sampleName, null, size), type);
+            previews.put(etag, cached);
+        }
+        return new Preview(cached, type, etag);
+    }
+
+    /**
+     * Issued certificate as it looks in the PDF, including its QR code
+     *
+     * @param ifNoneMatch the request's If-None-Match header, may be null
+     */
+    public Preview certificatePreview(Long certificateId, String email, int width, String format,
+            String ifNoneMatch) throws IOException {
+        Certificate certificate = certificateRepository.findById(certificateId)
+                .orElseThrow(() -> new RuntimeException("Certificate not found"));
+        if (!"GENERATED".equals(certificate.getGenerationStatus())) {
+            throw new RuntimeException("Certificate is not generated");
+        }
+
+        Template template = templateService.getTemplate(certificate.getEventId(), email); // Check access
+        // The template the PDF was rendered with; certificates not rendered yet get the current one
+        String imageHash = certificate.getTemplateHash() != null ? certificate.getTemplateHash()
+                : template != null && template.getImageHash() != null ? template.getImageHash() : "default";
+        int size = clampWidth(width);
+        String type = contentType(format);
+        // The name is drawn on the certificate and signed into its QR code, so it is part of the ETag
+        Participant participant = participantRepository.findById(certificate.getParticipantId())
+                .orElseThrow(() -> new RuntimeException("Participant not found"));
+        String etag = hash("certificate", imageHash, certificate.getVerificationId(), participant.getName(),
+                String.valueOf(size), type);
+        if (matches(etag, ifNoneMatch)) {
+            return new Preview(null, type, etag);
+        }
+
+        byte[] cached = previews.get(etag);
+        if (cached == null) {
+            BufferedImage qrCode = certificateRenderer.qrCode(certificate, participant.getName(),
+                    certificateRenderer.verificationBaseUrl());
+            cached = encode(pngGenerator.renderPreview(templateImage(imageHash), participant.getName(), qrCode,
+                    size), type);
+            previews.put(etag, cached);
+        }
+        return new Preview(cached, type, etag);
+    }
+
+    private byte[] templateImage(String imageHash) {
+        return "default".equals(imageHash) ? null : templateService.getTemplateImage(imageHash).getData();
+    }
+
+    private static boolean matches(String etag, String ifNoneMatch) {
+        String quoted = "\"" + etag + "\"";
+        return ifNoneMatch != null && (ifNoneMatch.equals(quoted) || ifNoneMatch.equals("W/" + quoted));
+    }
+
+    private static int clampWidth(int width) {
+        return Math.max(MIN_WIDTH, Math.min(width, MAX_WIDTH));
+    }
+
+    private static String contentType(String format) {
+        if (format == null || format.equalsIgnoreCase("png")) {
+            return "image/png";
+        }
+        if (format.equalsIgnoreCase("jpeg") || format.equalsIgnoreCase("jpg")) {
+            return "image/jpeg";
+        }
+        throw new IllegalArgumentException("Unsupported preview format: " + format);
+    }
+
+    private static byte[] encode(BufferedImage image, String contentType) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if ("image/png".equals(contentType)) {
+            ImageIO.write(image, "png", out);
+            return out.toByteArray();
+        }
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static String hash(String... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : parts) {
+                digest.update((part != null ? part : "").getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.certificate.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Certificate store backed by a Supabase (S3-compatible) bucket, so any
+ * instance can serve any certificate. Uploads run asynchronously; the storage
+ * service bounds how many are in flight, which makes a fast producer wait
+ * instead of queueing unbounded request bodies in memory.
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "supabase")
+public class SupabaseCertificateStore implements CertificateStore {
+
+    private final SupabaseStorageService storageService;
+
+    public SupabaseCertificateStore(SupabaseStorageService storageService) {
+        if (!storageService.isConfigured()) {
+            throw new IllegalStateException("app.storage.type=supabase requires supabase.url and supabase.key");
+        }
+        this.storageService = storageService;
+    }
+
+    @Override
+    public CompletableFuture<Void> store(String key, byte[] data, String contentType) {
+        return storageService.uploadFileAsync(data, key, contentType).thenApply(url -> null);
+    }
+
+    @Override
+    public byte[] read(String key) throws IOException {
+        // Certificates generated before the bucket was used are still on local disk
+        if (CertificateStore.isLegacyPath(key)) {
+            return Files.readAllBytes(CertificateStore.legacyPath(key));
+        }
+        try {
+            return storageService.downloadFile(key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while downloading " + key, e);
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        if (CertificateStore.isLegacyPath(key)) {
+            Files.deleteIfExists(CertificateStore.legacyPath(key));
+            return;
+        }
+        try {
+            storageService.deleteFile(key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while deleting " + key, e);
+        }
+    }
+}
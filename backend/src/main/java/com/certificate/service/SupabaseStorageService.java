@@ -1,30 +1,69 @@
 package com.certificate.service;
 
 import com.certificate.config.SupabaseConfig;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.URI;
+import java.net.URLConnection;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.file.Path;
 import java.time.Duration;
-
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client for the Supabase storage REST API. Uploads are sent asynchronously
+ * over one shared HTTP/2 client, so concurrent uploads are multiplexed on a
+ * few connections; a semaphore bounds how many are in flight (callers block
+ * when the limit is reached), and connection failures, 429 and 5xx responses
+ * are retried with exponential backoff and full jitter. Response handling and
+ * retries run on the storage executor.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class SupabaseStorageService {
 
     private final SupabaseConfig supabaseConfig;
-    private final HttpClient httpClient = HttpClient.newBuilder()
-            .connectTimeout(Duration.ofSeconds(10))
-            .build();
+    private final HttpClient httpClient;
+    private final Semaphore inFlight;
+    private final int maxRetries;
+    private final long retryBaseMillis;
+    private final Executor storageExecutor;
+
+    public SupabaseStorageService(SupabaseConfig supabaseConfig,
+            @Qualifier("storageExecutor") Executor storageExecutor,
+            @Value("${app.storage.supabase.max-in-flight:16}") int maxInFlight,
+            @Value("${app.storage.supabase.max-retries:3}") int maxRetries,
+            @Value("${app.storage.supabase.retry-base-ms:200}") long retryBaseMillis) {
+        this.supabaseConfig = supabaseConfig;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(storageExecutor)
+                .build();
+        this.inFlight = new Semaphore(maxInFlight);
+        this.maxRetries = maxRetries;
+        this.retryBaseMillis = retryBaseMillis;
+        this.storageExecutor = storageExecutor;
+    }
 
     /**
      * Upload a file to Supabase storage
-     * 
+     *
      * @param fileData The file bytes to upload
      * @param filename The filename (path) in the bucket
      * @return The public URL of the uploaded file
@@ -35,33 +74,132 @@ public class SupabaseStorageService {
             return null;
         }
 
-        String uploadUrl = supabaseConfig.getUploadUrl() + "/" + filename;
+        try {
+            return uploadFileAsync(fileData, filename, contentTypeFor(filename)).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        }
+    }
 
-        log.info("Uploading to Supabase: {}", uploadUrl);
+    /**
+     * Upload (or overwrite) a file without blocking the caller, other than to
+     * wait for a free upload slot
+     *
+     * @return future completing with the public URL of the uploaded file
+     */
+    public CompletableFuture<String> uploadFileAsync(byte[] fileData, String filename, String contentType) {
+        return upload(HttpRequest.BodyPublishers.ofByteArray(fileData), filename, contentType);
+    }
+
+    /**
+     * Upload a file from disk, streaming it instead of loading it into memory
+     */
+    public CompletableFuture<String> uploadFileAsync(Path file, String filename, String contentType) {
+        try {
+            return upload(HttpRequest.BodyPublishers.ofFile(file), filename, contentType);
+        } catch (FileNotFoundException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Upload many files from disk with overlapping requests. The caller blocks
+     * while the in-flight limit is reached, so only that many bodies are open.
+     *
+     * @param files bucket path to local file
+     * @return future completing with the public URLs once every upload is done;
+     *         it fails if any upload failed after its retries
+     */
+    public CompletableFuture<List<String>> uploadAllAsync(Map<String, Path> files) {
+        List<CompletableFuture<String>> uploads = new ArrayList<>(files.size());
+        for (Map.Entry<String, Path> file : files.entrySet()) {
+            uploads.add(uploadFileAsync(file.getValue(), file.getKey(), contentTypeFor(file.getKey())));
+        }
+        return CompletableFuture.allOf(uploads.toArray(CompletableFuture[]::new))
+                .thenApply(done -> uploads.stream().map(CompletableFuture::join).toList());
+    }
+
+    private CompletableFuture<String> upload(HttpRequest.BodyPublisher body, String filename, String contentType) {
+        if (!supabaseConfig.isConfigured()) {
+            return CompletableFuture.failedFuture(new IOException("Supabase storage is not configured"));
+        }
 
         HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(uploadUrl))
+                .uri(URI.create(supabaseConfig.getUploadUrl() + "/" + filename))
                 .header("Authorization", "Bearer " + supabaseConfig.getSupabaseKey())
-                .header("Content-Type", "image/png")
-                .POST(HttpRequest.BodyPublishers.ofByteArray(fileData))
+                .header("Content-Type", contentType)
+                .header("x-upsert", "true")
+                .POST(body)
                 .timeout(Duration.ofSeconds(30))
                 .build();
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
 
-        if (response.statusCode() == 200 || response.statusCode() == 201) {
-            String publicUrl = supabaseConfig.getStorageUrl() + "/" + filename;
-            log.info("Successfully uploaded to Supabase: {}", publicUrl);
-            return publicUrl;
-        } else {
-            log.error("Failed to upload to Supabase. Status: {}, Body: {}", response.statusCode(), response.body());
-            throw new IOException("Failed to upload to Supabase: " + response.body());
+        return sendWithRetry(request, 0)
+                .whenComplete((response, error) -> inFlight.release())
+                .thenApply(response -> {
+                    if (response.statusCode() == 200 || response.statusCode() == 201) {
+                        log.debug("Uploaded to Supabase: {}", filename);
+                        return supabaseConfig.getStorageUrl() + "/" + filename;
+                    }
+                    log.error("Failed to upload to Supabase. Status: {}, Body: {}", response.statusCode(),
+                            response.body());
+                    throw new CompletionException(
+                            new IOException("Failed to upload to Supabase: " + response.body()));
+                });
+    }
+
+    private CompletableFuture<HttpResponse<String>> sendWithRetry(HttpRequest request, int attempt) {
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .handle((response, error) -> {
+                    boolean retryable = error != null
+                            || response.statusCode() == 429 || response.statusCode() >= 500;
+                    if (!retryable || attempt >= maxRetries) {
+                        return error == null ? CompletableFuture.completedFuture(response)
+                                : CompletableFuture.<HttpResponse<String>>failedFuture(error);
+                    }
+
+                    long delay = ThreadLocalRandom.current().nextLong(retryBaseMillis << attempt) + 1;
+                    log.warn("Retrying upload {} in {} ms (attempt {}): {}", request.uri().getPath(), delay,
+                            attempt + 1, error != null ? error.getMessage() : "status " + response.statusCode());
+                    return CompletableFuture.supplyAsync(() -> null,
+                            CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, storageExecutor))
+                            .thenCompose(ignored -> sendWithRetry(request, attempt + 1));
+                })
+                .thenCompose(next -> next);
+    }
+
+    /**
+     * Download a file from the (private) bucket
+     */
+    public byte[] downloadFile(String filename) throws IOException, InterruptedException {
+        if (!supabaseConfig.isConfigured()) {
+            throw new IOException("Supabase storage is not configured");
         }
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(supabaseConfig.getUploadUrl() + "/" + filename))
+                .header("Authorization", "Bearer " + supabaseConfig.getSupabaseKey())
+                .GET()
+                .timeout(Duration.ofSeconds(30))
+                .build();
+
+        HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IOException("Failed to download from Supabase (status " + response.statusCode() + "): "
+                    + filename);
+        }
+        return response.body();
     }
 
     /**
      * Delete a file from Supabase storage
-     * 
+     *
      * @param filename The filename (path) in the bucket
      */
     public void deleteFile(String filename) throws IOException, InterruptedException {
@@ -97,4 +235,13 @@ public class SupabaseStorageService {
     public boolean isConfigured() {
         return supabaseConfig.isConfigured();
     }
+
+    static String contentTypeFor(String filename) {
+        String lower = filename.toLowerCase();
+        if (lower.endsWith(".pdf")) {
+            return "application/pdf";
+        }
+        String guessed = URLConnection.guessContentTypeFromName(lower);
+        return guessed != null ? guessed : "application/octet-stream";
+    }
 }
@@ -1,20 +1,69 @@
 package com.certificate.service;
 
 import com.certificate.entity.Template;
+import com.certificate.entity.TemplateBlob;
+import com.certificate.repository.TemplateBlobRepository;
 import com.certificate.repository.TemplateRepository;
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.Iterator;
 
 @Service
-@RequiredArgsConstructor
 public class TemplateService {
 
     private final TemplateRepository templateRepository;
+    private final TemplateBlobRepository templateBlobRepository;
     private final EventService eventService;
+    private final PngCertificateGenerator pngGenerator;
+
+    /**
+     * A render-ready template and the image hash it was prepared from ("default" for the built-in one)
+     */
+    public record RenderTemplate(String imageHash, BufferedImage image) {
+    }
+
+    // Render-ready templates by content hash ("default" for the built-in one), bounded by raster size
+    private final Cache<String, BufferedImage> renderTemplates;
+
+    // Larger templates are scaled down to the render target when they are prepared, so these
+    // only turn away decompression bombs; big scans are decoded subsampled
+    @Value("${app.template.max-dimension:16384}")
+    private int maxDimension;
+
+    @Value("${app.template.max-pixels:100000000}")
+    private long maxPixels;
+
+    public TemplateService(TemplateRepository templateRepository, TemplateBlobRepository templateBlobRepository,
+            EventService eventService, PngCertificateGenerator pngGenerator,
+            @Value("${app.template.cache.max-bytes:67108864}") long cacheMaxBytes) {
+        this.templateRepository = templateRepository;
+        this.templateBlobRepository = templateBlobRepository;
+        this.eventService = eventService;
+        this.pngGenerator = pngGenerator;
+        this.renderTemplates = Caffeine.newBuilder()
+                .maximumWeight(cacheMaxBytes)
+                .weigher((String key, BufferedImage image) -> rasterBytes(image))
+                .expireAfterAccess(Duration.ofMinutes(30))
+                .build();
+    }
 
     @Transactional
     public void uploadTemplate(Long eventId, String email, MultipartFile file) throws IOException {
@@ -29,30 +78,150 @@ public class TemplateService {
             throw new IllegalArgumentException("Only PNG files are allowed. Please ensure the file ends with .png");
         }
 
+        byte[] imageData = file.getBytes();
+        // Reject anything that would fail or blow up a batch render before it is stored
+        BufferedImage image = decodeTemplate(imageData);
+        String hash = storeBlob(imageData, image);
+
         Template template = templateRepository.findByEventId(eventId)
                 .orElse(new Template());
+        String previousHash = template.getImageHash();
 
         template.setEventId(eventId);
         template.setTemplateName(file.getOriginalFilename());
-        template.setImageData(file.getBytes());
+        template.setImageHash(hash);
         template.setIsDefault(false);
         // Default coordinates are set in entity constructor/defaults, but can be
         // updated here if we had UI for it
 
-        templateRepository.save(template);
+        templateRepository.saveAndFlush(template);
+
+        if (previousHash != null && !previousHash.equals(hash)) {
+            templateBlobRepository.deleteIfUnreferenced(previousHash);
+        }
     }
 
+    /**
+     * Template metadata only (layout fields and image hash); the image bytes are
+     * served separately by {@link #getTemplateImage(String)}.
+     */
     public Template getTemplate(Long eventId, String email) {
         eventService.getEventById(eventId, email); // Check access
         return templateRepository.findByEventId(eventId)
                 .orElse(null); // Return null if not found (frontend expects null or error)
     }
 
+    /**
+     * Image bytes by content hash. Callers resolve the hash through
+     * {@link #getTemplate(Long, String)} first, which performs the access check.
+     */
+    public TemplateBlob getTemplateImage(String imageHash) {
+        return templateBlobRepository.findById(imageHash)
+                .orElseThrow(() -> new RuntimeException("Template image not found"));
+    }
+
+    /**
+     * Internal lookup of the render-ready template for an event (no access
+     * check): the stored flattened form, or the default template when the event
+     * has none. Shared between renders, so callers must not draw on it.
+     */
+    public RenderTemplate getRenderTemplate(Long eventId) {
+        String hash = templateRepository.findByEventId(eventId).map(Template::getImageHash).orElse(null);
+        String key = hash != null ? hash : "default";
+        // Concurrent misses for the same template wait for one load
+        return new RenderTemplate(key, renderTemplates.get(key, k -> {
+            try {
+                byte[] flattened = hash != null ? templateBlobRepository.findFlattenedDataByHash(hash) : null;
+                if (flattened != null) {
+                    return ImageIO.read(new ByteArrayInputStream(flattened));
+                }
+                // Default template, or a blob stored before templates were flattened at upload
+                return pngGenerator.prepareTemplate(hash != null ? getTemplateImage(hash).getData() : null);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to load certificate template", e);
+            }
+        }));
+    }
+
     @Transactional
     public void deleteTemplate(Long eventId, String email) {
         eventService.getEventById(eventId, email); // Check access
         Template template = templateRepository.findByEventId(eventId)
                 .orElseThrow(() -> new RuntimeException("Template not found"));
         templateRepository.delete(template);
+        templateRepository.flush();
+
+        if (template.getImageHash() != null) {
+            templateBlobRepository.deleteIfUnreferenced(template.getImageHash());
+        }
+    }
+
+    private String storeBlob(byte[] data, BufferedImage image) throws IOException {
+        String hash = sha256(data);
+        TemplateBlob blob = templateBlobRepository.findById(hash).orElse(null);
+        if (blob == null) {
+            templateBlobRepository.save(new TemplateBlob(hash, data, (long) data.length, flatten(image), null));
+        } else if (blob.getFlattenedData() == null) {
+            blob.setFlattenedData(flatten(image));
+            templateBlobRepository.save(blob);
+        }
+        return hash;
+    }
+
+    /**
+     * Decode and validate an uploaded template. The format and dimensions are
+     * checked from the header, before any pixels are decoded; images well above
+     * the render target are decoded with source subsampling.
+     */
+    private BufferedImage decodeTemplate(byte[] data) {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(data))) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input)
+                    : Collections.emptyIterator();
+            if (!readers.hasNext()) {
+                throw new IllegalArgumentException("The uploaded file is not a readable image");
+            }
+            ImageReader reader = readers.next();
+            try {
+                if (!"png".equalsIgnoreCase(reader.getFormatName())) {
+                    throw new IllegalArgumentException("Only PNG files are allowed");
+                }
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if (width > maxDimension || height > maxDimension || (long) width * height > maxPixels) {
+                    throw new IllegalArgumentException("Template image is too large (" + width + "x" + height
+                            + "); the limit is " + maxDimension + " pixels per side and " + maxPixels
+                            + " pixels in total");
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.max(width, height) / (2 * PngCertificateGenerator.RENDER_WIDTH));
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("The uploaded template could not be decoded");
+        }
+    }
+
+    private byte[] flatten(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(pngGenerator.prepareTemplate(image), "png", out);
+        return out.toByteArray();
+    }
+
+    private static int rasterBytes(BufferedImage image) {
+        long bytes = (long) image.getWidth() * image.getHeight()
+                * Math.max(1, image.getColorModel().getPixelSize() / 8);
+        return (int) Math.min(Integer.MAX_VALUE, bytes);
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 }
@@ -0,0 +1,191 @@
+package com.certificate.service;
+
+import com.certificate.dto.CertificateVerificationDTO;
+import com.certificate.repository.CertificateRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Read-through cache for the public verification endpoint. Valid certificates
+ * are cached as fully built DTOs; unknown or invalid ids are remembered for a
+ * shorter TTL so repeated or random scans do not reach the database. Ids that
+ * are not even UUID-shaped are rejected without a lookup. The caches are
+ * Caffeine's, so hits take no lock and scale with the number of cores.
+ * Invalidations reach the other nodes over the {@link ClusterBus}.
+ */
+@Component
+public class VerificationCache {
+
+    private static final String NOT_FOUND = "Certificate not found or invalid";
+    private static final String NOT_VALID = "Certificate is not valid";
+    private static final String INVALIDATE = "verification";
+    private static final String INVALIDATE_EVENT = "verification-event";
+    private static final Pattern UUID_FORMAT = Pattern
+            .compile("[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+
+    private record Verified(Long eventId, CertificateVerificationDTO dto) {
+    }
+
+    private final CertificateRepository certificateRepository;
+    private final ConcurrencyLimits concurrencyLimits;
+    private final Cache<String, Verified> valid;
+    private final Cache<String, String> invalid;
+    private final ClusterBus clusterBus;
+
+    public VerificationCache(CertificateRepository certificateRepository, ConcurrencyLimits concurrencyLimits,
+            ClusterBus clusterBus,
+            @Value("${app.cache.verification.max-size:50000}") int maxSize,
+            @Value("${app.cache.verification.ttl-seconds:600}") long ttlSeconds,
+            @Value("${app.cache.verification.negative-max-size:100000}") int negativeMaxSize,
+            @Value("${app.cache.verification.negative-ttl-seconds:60}") long negativeTtlSeconds) {
+        this.certificateRepository = certificateRepository;
+        this.concurrencyLimits = concurrencyLimits;
+        this.valid = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+        this.invalid = Caffeine.newBuilder()
+                .maximumSize(negativeMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(negativeTtlSeconds))
+                .build();
+        this.clusterBus = clusterBus;
+        clusterBus.subscribe(INVALIDATE, this::evict);
+        clusterBus.subscribe(INVALIDATE_EVENT, eventId -> evictEvent(Long.valueOf(eventId)));
+        clusterBus.onResync(() -> {
+            valid.invalidateAll();
+            invalid.invalidateAll();
+        });
+    }
+
+    /**
+     * Verification result for an id, loading it with a single query on a miss.
+     * Throws with the same messages as before for unknown or invalid certificates.
+     */
+    public CertificateVerificationDTO verify(String verificationId) {
+        if (verificationId == null || !UUID_FORMAT.matcher(verificationId).matches()) {
+            throw new RuntimeException(NOT_FOUND);
+        }
+
+        CertificateVerificationDTO cached = cached(verificationId);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Bounded so a burst of lookups on virtual request threads waits here, not in the connection pool
+        return load(verificationId, concurrencyLimits
+                .withVerificationDatabase(() -> certificateRepository.findVerificationRow(verificationId)));
+    }
+
+    /**
+     * Like {@link #verify}, for certificates whose claims are already
+     * authenticated (signed QR tokens): on a miss it waits at most {@code wait}
+     * for a database slot and one second for the query.
+     *
+     * @return the result, or empty if the database could not answer in time
+     */
+    public Optional<CertificateVerificationDTO> verifyIfAvailable(String verificationId, Duration wait) {
+        if (verificationId == null || !UUID_FORMAT.matcher(verificationId).matches()) {
+            throw new RuntimeException(NOT_FOUND);
+        }
+
+        CertificateVerificationDTO cached = cached(verificationId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        Optional<List<Object[]>> rows;
+        try {
+            rows = concurrencyLimits.tryWithVerificationDatabase(
+                    () -> certificateRepository.findVerificationRowWithTimeout(verificationId), wait);
+        } catch (DataAccessException e) {
+            return Optional.empty();
+        }
+        return rows.map(found -> load(verificationId, found));
+    }
+
+    /**
+     * Cached result, null on a miss; throws for a cached rejection
+     */
+    private CertificateVerificationDTO cached(String verificationId) {
+        Verified cached = valid.getIfPresent(verificationId);
+        if (cached != null) {
+            return cached.dto();
+        }
+        String rejection = invalid.getIfPresent(verificationId);
+        if (rejection != null) {
+            throw new RuntimeException(rejection);
+        }
+        return null;
+    }
+
+    private CertificateVerificationDTO load(String verificationId, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            invalid.put(verificationId, NOT_FOUND);
+            throw new RuntimeException(NOT_FOUND);
+        }
+
+        Object[] row = rows.get(0);
+        if (!"GENERATED".equals(row[1])) {
+            invalid.put(verificationId, NOT_VALID);
+            throw new RuntimeException(NOT_VALID);
+        }
+
+        CertificateVerificationDTO dto = new CertificateVerificationDTO(true, (String) row[2], (String) row[3],
+                (LocalDate) row[4], (String) row[5], (String) row[6], (LocalDateTime) row[7], verificationId);
+        valid.put(verificationId, new Verified((Long) row[0], dto));
+        return dto;
+    }
+
+    /**
+     * Forget one certificate (deleted or regenerated)
+     */
+    public void invalidate(String verificationId) {
+        if (verificationId == null) {
+            return;
+        }
+        runNowAndAfterCommit(() -> evict(verificationId));
+        clusterBus.publish(INVALIDATE, verificationId);
+    }
+
+    /**
+     * Forget every cached certificate of an event (event edited or deleted,
+     * participants removed). Negative entries are left to expire on their own.
+     */
+    public void invalidateEvent(Long eventId) {
+        runNowAndAfterCommit(() -> evictEvent(eventId));
+        clusterBus.publish(INVALIDATE_EVENT, String.valueOf(eventId));
+    }
+
+    private void evict(String verificationId) {
+        valid.invalidate(verificationId);
+        invalid.invalidate(verificationId);
+    }
+
+    private void evictEvent(Long eventId) {
+        valid.asMap().values().removeIf(entry -> eventId.equals(entry.eventId()));
+    }
+
+    private void runNowAndAfterCommit(Runnable action) {
+        action.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        }
+    }
+}
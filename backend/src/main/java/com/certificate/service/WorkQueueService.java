@@ -0,0 +1,200 @@
+package com.certificate.service;
+
+import com.certificate.entity.WorkTask;
+import com.certificate.repository.WorkTaskRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Database-backed queue of generation and dispatch work shared by every
+ * backend instance. Work is enqueued in the caller's transaction, so it is
+ * only visible once the rows it refers to are committed. Nodes claim batches
+ * with {@code SELECT ... FOR UPDATE SKIP LOCKED} and hold them under a lease
+ * on the database clock, which the worker renews while a task runs; a node
+ * that dies leaves its claims to expire and be claimed again.
+ */
+@Slf4j
+@Service
+public class WorkQueueService {
+
+    private final WorkTaskRepository workTaskRepository;
+    private final String nodeId;
+    private final int taskSize;
+    private final Duration lease;
+    private final int maxAttempts;
+
+    public WorkQueueService(WorkTaskRepository workTaskRepository,
+            @Value("${app.queue.node-id:}") String nodeId,
+            @Value("${app.queue.task-size:50}") int taskSize,
+            @Value("${app.queue.lease-seconds:600}") long leaseSeconds,
+            @Value("${app.queue.max-attempts:3}") int maxAttempts) {
+        this.workTaskRepository = workTaskRepository;
+        // RuntimeMXBean name is "pid@hostname", unique per running instance
+        this.nodeId = nodeId.isBlank() ? ManagementFactory.getRuntimeMXBean().getName() : nodeId;
+        this.taskSize = taskSize;
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.maxAttempts = maxAttempts;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Queue work on the given items, split into tasks of at most task-size items
+     */
+    @Transactional
+    public void enqueue(String type, Long eventId, List<Long> itemIds, String payload) {
+        List<WorkTask> tasks = new ArrayList<>();
+        for (int i = 0; i < itemIds.size(); i += taskSize) {
+            WorkTask task = new WorkTask();
+            task.setType(type);
+            task.setEventId(eventId);
+            task.setItemIds(itemIds.subList(i, Math.min(i + taskSize, itemIds.size())).stream()
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(",")));
+            task.setPayload(payload);
+            tasks.add(task);
+        }
+        workTaskRepository.saveAll(tasks);
+        log.info("Queued {} {} tasks for event {}", tasks.size(), type, eventId);
+    }
+
+    /**
+     * Claim up to limit tasks for this node. Tasks whose lease already ran out
+     * max-attempts times are marked FAILED instead of being handed out again,
+     * and passed to onGiveUp in the same transaction.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public List<WorkTask> claim(int limit, BiConsumer<WorkTask, String> onGiveUp) {
+        List<Long> ids = workTaskRepository.lockClaimable(limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        List<WorkTask> claimed = new ArrayList<>(ids.size());
+        for (WorkTask task : workTaskRepository.findAllById(ids)) {
+            if (task.getAttempts() >= maxAttempts) {
+                log.error("Giving up on {} task {} after {} attempts", task.getType(), task.getId(),
+                        task.getAttempts());
+                task.setStatus("FAILED");
+                task.setLastError("Claim expired " + task.getAttempts() + " times");
+                task.setLeaseUntil(null);
+                onGiveUp.accept(task, task.getLastError());
+                continue;
+            }
+            if ("CLAIMED".equals(task.getStatus())) {
+                log.warn("Reclaiming {} task {} from {} after its lease expired", task.getType(), task.getId(),
+                        task.getClaimedBy());
+            }
+            task.setStatus("CLAIMED");
+            task.setClaimedBy(nodeId);
+            task.setAttempts(task.getAttempts() + 1);
+            claimed.add(task);
+        }
+        // The lease is taken on the database clock, after the claim above is flushed
+        claimed.forEach(task -> workTaskRepository.renewLease(task.getId(), nodeId, lease.toSeconds()));
+        return claimed;
+    }
+
+    /**
+     * Extend the lease of a running task by another lease period
+     *
+     * @return false if the lease already ran out and another node took the task over
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean renewLease(WorkTask task) {
+        return workTaskRepository.renewLease(task.getId(), nodeId, lease.toSeconds()) == 1;
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void complete(WorkTask task) {
+        finish(task, "DONE", null);
+    }
+
+    /**
+     * Record a failed attempt; the task goes back to the queue until it has
+     * used up its attempts
+     *
+     * @return true if the task used up its attempts and is now FAILED
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean fail(WorkTask task, Throwable error) {
+        String message = error.getMessage() != null ? error.getMessage() : error.getClass().getName();
+        boolean givenUp = task.getAttempts() >= maxAttempts;
+        return finish(task, givenUp ? "FAILED" : "PENDING", message) && givenUp;
+    }
+
+    /**
+     * Put an unfinished task back in the queue (e.g. on shutdown) so any node
+     * can resume it right away instead of waiting for the lease to expire.
+     * Work it already checkpointed is skipped when it runs again.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void release(WorkTask task) {
+        if (workTaskRepository.release(task.getId(), nodeId) == 1) {
+            log.info("Released {} task {} back to the queue", task.getType(), task.getId());
+        }
+    }
+
+    /**
+     * Checkpoint one item of a running task, committed right away
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void markItemDone(WorkTask task, Long itemId) {
+        workTaskRepository.markItemDone(task.getId(), String.valueOf(itemId));
+    }
+
+    /**
+     * Drop finished tasks older than the given age
+     */
+    @Transactional
+    public int purgeFinished(Duration age) {
+        return workTaskRepository.deleteFinishedBefore(LocalDateTime.now().minus(age));
+    }
+
+    public static List<Long> itemIds(WorkTask task) {
+        return Arrays.stream(task.getItemIds().split(","))
+                .map(Long::valueOf)
+                .toList();
+    }
+
+    /**
+     * Items of the task not checkpointed as done by an earlier attempt
+     */
+    public static List<Long> remainingItemIds(WorkTask task) {
+        if (task.getDoneItemIds() == null || task.getDoneItemIds().isEmpty()) {
+            return itemIds(task);
+        }
+        Set<Long> done = Arrays.stream(task.getDoneItemIds().split(","))
+                .filter(id -> !id.isEmpty())
+                .map(Long::valueOf)
+                .collect(Collectors.toSet());
+        return itemIds(task).stream()
+                .filter(id -> !done.contains(id))
+                .toList();
+    }
+
+    private boolean finish(WorkTask task, String status, String error) {
+        int updated = workTaskRepository.finish(task.getId(), nodeId, status, error);
+        if (updated == 0) {
+            // The lease ran out and another node took the task over; its outcome wins
+            log.warn("Lost the claim on {} task {} before finishing it", task.getType(), task.getId());
+            return false;
+        }
+        return true;
+    }
+}
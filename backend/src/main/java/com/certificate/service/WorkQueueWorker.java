@@ -0,0 +1,225 @@
+package com.certificate.service;
+
+import com.certificate.entity.WorkTask;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Polls the work queue and runs the claimed tasks on this node. Each poll
+ * claims at most as many tasks as there are idle worker threads, so adding a
+ * node adds its threads to the cluster-wide throughput.
+ *
+ * <p>On shutdown (SIGTERM) the worker stops claiming and lets running tasks
+ * finish for up to app.queue.drain-seconds. After that, items a task has not
+ * started yet are skipped, and the task is released back to the queue. Work
+ * is checkpointed per certificate or email, so the next claim resumes where
+ * this node stopped.
+ */
+@Slf4j
+@Component
+public class WorkQueueWorker implements SmartLifecycle {
+
+    // Time left after the drain deadline for renders and sends already under way
+    private static final Duration ABANDON_GRACE = Duration.ofSeconds(10);
+
+    private final WorkQueueService workQueueService;
+    private final CertificateServicePng certificateService;
+    private final EmailDispatchService emailDispatchService;
+    private final ObjectMapper objectMapper;
+    private final TaskExecutor queueExecutor;
+    private final int concurrency;
+    private final boolean enabled;
+    private final Duration drainTimeout;
+    private final Map<Long, WorkTask> inFlight = new ConcurrentHashMap<>();
+    // Tasks whose claim another node took over; they skip the items they have not started
+    private final Set<Long> lost = ConcurrentHashMap.newKeySet();
+    private volatile boolean accepting;
+    // Set when the drain deadline passed; running tasks skip the items they have not started
+    private volatile boolean abandoning;
+
+    public WorkQueueWorker(WorkQueueService workQueueService, CertificateServicePng certificateService,
+            EmailDispatchService emailDispatchService, ObjectMapper objectMapper,
+            @Qualifier("queueExecutor") TaskExecutor queueExecutor,
+            @Value("${app.queue.concurrency:4}") int concurrency,
+            @Value("${app.queue.worker.enabled:true}") boolean enabled,
+            @Value("${app.queue.drain-seconds:30}") long drainSeconds) {
+        this.workQueueService = workQueueService;
+        this.certificateService = certificateService;
+        this.emailDispatchService = emailDispatchService;
+        this.objectMapper = objectMapper;
+        this.queueExecutor = queueExecutor;
+        this.concurrency = concurrency;
+        this.enabled = enabled;
+        this.drainTimeout = Duration.ofSeconds(drainSeconds);
+    }
+
+    @Override
+    public void start() {
+        accepting = true;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return accepting;
+    }
+
+    /**
+     * Stop claiming and drain the tasks in flight, see the class comment
+     */
+    @Override
+    public void stop() {
+        accepting = false;
+        if (inFlight.isEmpty()) {
+            return;
+        }
+
+        log.info("Draining {} work tasks (up to {} s)", inFlight.size(), drainTimeout.toSeconds());
+        if (awaitIdle(drainTimeout)) {
+            log.info("Work tasks drained");
+            return;
+        }
+
+        log.warn("{} work tasks still running after {} s; releasing them for another node", inFlight.size(),
+                drainTimeout.toSeconds());
+        abandoning = true;
+        if (!awaitIdle(ABANDON_GRACE)) {
+            // Stuck on I/O; hand them back anyway, checkpointed items are skipped on the next run
+            inFlight.values().forEach(workQueueService::release);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.queue.poll-ms:1000}", fixedDelayString = "${app.queue.poll-ms:1000}")
+    public void poll() {
+        int idle = concurrency - inFlight.size();
+        if (!enabled || !accepting || idle <= 0) {
+            return;
+        }
+
+        List<WorkTask> tasks;
+        try {
+            tasks = workQueueService.claim(idle, this::giveUp);
+        } catch (DataAccessException e) {
+            log.warn("Failed to claim work: {}", e.getMessage());
+            return;
+        }
+
+        for (WorkTask task : tasks) {
+            inFlight.put(task.getId(), task);
+            queueExecutor.execute(() -> {
+                try {
+                    execute(task);
+                    if (lost.contains(task.getId())) {
+                        log.warn("{} task {} stopped, another node took it over", task.getType(), task.getId());
+                    } else if (abandoning) {
+                        workQueueService.release(task);
+                    } else {
+                        workQueueService.complete(task);
+                    }
+                } catch (Exception e) {
+                    if (abandoning) {
+                        workQueueService.release(task);
+                    } else {
+                        log.error("{} task {} failed (attempt {})", task.getType(), task.getId(),
+                                task.getAttempts(), e);
+                        if (workQueueService.fail(task, e)) {
+                            giveUp(task, e.getMessage() != null ? e.getMessage() : e.getClass().getName());
+                        }
+                    }
+                } finally {
+                    inFlight.remove(task.getId());
+                    lost.remove(task.getId());
+                }
+            });
+        }
+    }
+
+    /**
+     * Keep the leases of running tasks alive, three times per lease period. A
+     * task whose lease could not be renewed in time was handed to another node;
+     * it stops before its next item so the two nodes do not both work on it.
+     */
+    @Scheduled(fixedDelayString = "#{${app.queue.lease-seconds:600} * 1000 / 3}")
+    public void renewLeases() {
+        for (WorkTask task : inFlight.values()) {
+            try {
+                if (!workQueueService.renewLease(task) && inFlight.containsKey(task.getId())) {
+                    log.warn("Lost the claim on {} task {}, stopping it", task.getType(), task.getId());
+                    lost.add(task.getId());
+                }
+            } catch (DataAccessException e) {
+                log.warn("Failed to renew the lease on {} task {}: {}", task.getType(), task.getId(),
+                        e.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.queue.purge-interval-ms:3600000}")
+    public void purgeFinished() {
+        try {
+            int purged = workQueueService.purgeFinished(Duration.ofDays(1));
+            if (purged > 0) {
+                log.info("Purged {} finished work tasks", purged);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Failed to purge finished work tasks: {}", e.getMessage());
+        }
+    }
+
+    private void execute(WorkTask task) throws Exception {
+        BooleanSupplier stop = () -> abandoning || lost.contains(task.getId());
+        switch (task.getType()) {
+            // Certificates carry their own progress: only PENDING ones are rendered
+            case WorkTask.GENERATE_CERTIFICATES -> certificateService.renderPending(task.getEventId(),
+                    WorkQueueService.itemIds(task), stop);
+            case WorkTask.SEND_CERTIFICATES -> emailDispatchService.sendEmails(
+                    WorkQueueService.remainingItemIds(task), task.getEventId(),
+                    id -> workQueueService.markItemDone(task, id), stop).join();
+            case WorkTask.SEND_UPDATES -> emailDispatchService.sendUpdateEmails(
+                    WorkQueueService.remainingItemIds(task),
+                    objectMapper.readValue(task.getPayload(), EmailDispatchService.UpdateEmail.class),
+                    id -> workQueueService.markItemDone(task, id), stop).join();
+            default -> throw new IllegalArgumentException("Unknown work task type: " + task.getType());
+        }
+    }
+
+    /**
+     * Settle the items of a task that will not be retried. Certificates it
+     * left PENDING are marked FAILED so they can be regenerated; emails are
+     * marked as they go and need nothing here.
+     */
+    private void giveUp(WorkTask task, String error) {
+        if (WorkTask.GENERATE_CERTIFICATES.equals(task.getType())) {
+            certificateService.failPending(WorkQueueService.itemIds(task), error);
+        }
+    }
+
+    private boolean awaitIdle(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!inFlight.isEmpty()) {
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,104 @@
+package com.certificate.util;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LRU cache of byte arrays bounded by their total size rather than by entry
+ * count. With off-heap enabled the bytes are copied into direct buffers, so a
+ * large cache does not add to heap pressure or GC pause times. Either way the
+ * cache keeps its own copy and hands out copies, so callers may modify what
+ * they put or get.
+ */
+public class ByteSizeLruCache<K> {
+
+    private final long maxBytes;
+    private final boolean offHeap;
+    private final Map<K, Object> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private long totalBytes;
+
+    public ByteSizeLruCache(long maxBytes, boolean offHeap) {
+        this.maxBytes = maxBytes;
+        this.offHeap = offHeap;
+    }
+
+    /**
+     * Copy of the cached bytes, or null if absent
+     */
+    public synchronized byte[] get(K key) {
+        Object value = entries.get(key);
+        if (value == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        if (value instanceof ByteBuffer buffer) {
+            byte[] data = new byte[buffer.capacity()];
+            buffer.get(0, data);
+            return data;
+        }
+        return ((byte[]) value).clone();
+    }
+
+    /**
+     * Cache the bytes, evicting least recently used entries to make room.
+     * Values larger than a quarter of the budget are not cached so a single
+     * item cannot flush everything else.
+     */
+    public synchronized void put(K key, byte[] data) {
+        remove(key);
+        if (data.length > maxBytes / 4) {
+            return;
+        }
+        Iterator<Object> eldest = entries.values().iterator();
+        while (totalBytes + data.length > maxBytes && eldest.hasNext()) {
+            totalBytes -= sizeOf(eldest.next());
+            eldest.remove();
+        }
+        if (offHeap) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(data.length);
+            buffer.put(0, data);
+            entries.put(key, buffer);
+        } else {
+            entries.put(key, data.clone());
+        }
+        totalBytes += data.length;
+    }
+
+    public synchronized void remove(K key) {
+        Object removed = entries.remove(key);
+        if (removed != null) {
+            totalBytes -= sizeOf(removed);
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        totalBytes = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    private static long sizeOf(Object value) {
+        return value instanceof ByteBuffer buffer ? buffer.capacity() : ((byte[]) value).length;
+    }
+}
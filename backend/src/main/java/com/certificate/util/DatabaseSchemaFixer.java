@@ -56,5 +56,67 @@ public class DatabaseSchemaFixer {
         } catch (Exception e) {
             log.warn("Database schema fix failed (it might already be correct): {}", e.getMessage());
         }
+
+        migrateTemplateImages();
+        createIndexes();
+    }
+
+    /**
+     * Indexes backing the per-event status projection, its keyset pagination,
+     * updated_at delta polling and the template blob reference check
+     */
+    private void createIndexes() {
+        try {
+            jdbcTemplate.execute(
+                    "CREATE INDEX IF NOT EXISTS idx_participants_event_id ON participants (event_id, id)");
+            jdbcTemplate.execute(
+                    "CREATE INDEX IF NOT EXISTS idx_participants_event_name ON participants (event_id, name, id)");
+            jdbcTemplate.execute(
+                    "CREATE INDEX IF NOT EXISTS idx_certificates_event_participant ON certificates (event_id, participant_id)");
+            jdbcTemplate.execute(
+                    "CREATE INDEX IF NOT EXISTS idx_certificates_event_updated ON certificates (event_id, updated_at)");
+            jdbcTemplate.execute(
+                    "CREATE INDEX IF NOT EXISTS idx_participants_event_updated ON participants (event_id, updated_at)");
+            jdbcTemplate.execute(
+                    "CREATE INDEX IF NOT EXISTS idx_certificates_template_hash ON certificates (template_hash)");
+        } catch (Exception e) {
+            log.warn("Index creation failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Move legacy templates.image_data bytes into the content-addressed
+     * template_blobs table and clear the inline copy.
+     */
+    private void migrateTemplateImages() {
+        try {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS template_blobs (" +
+                    "hash VARCHAR(64) PRIMARY KEY, " +
+                    "data BYTEA NOT NULL, " +
+                    "size_bytes BIGINT, " +
+                    "created_at TIMESTAMP)");
+            jdbcTemplate.execute("ALTER TABLE templates ADD COLUMN IF NOT EXISTS image_hash VARCHAR(64)");
+
+            Integer legacyColumn = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM information_schema.columns " +
+                            "WHERE table_name = 'templates' AND column_name = 'image_data'",
+                    Integer.class);
+            if (legacyColumn == null || legacyColumn == 0) {
+                return;
+            }
+
+            jdbcTemplate.execute("INSERT INTO template_blobs (hash, data, size_bytes, created_at) " +
+                    "SELECT DISTINCT ON (encode(sha256(image_data), 'hex')) encode(sha256(image_data), 'hex'), " +
+                    "image_data, octet_length(image_data), CURRENT_TIMESTAMP " +
+                    "FROM templates WHERE image_data IS NOT NULL " +
+                    "ON CONFLICT (hash) DO NOTHING");
+            int migrated = jdbcTemplate.update("UPDATE templates SET image_hash = encode(sha256(image_data), 'hex'), " +
+                    "image_data = NULL WHERE image_data IS NOT NULL");
+            if (migrated > 0) {
+                log.info("Moved {} template images into template_blobs", migrated);
+            }
+        } catch (Exception e) {
+            log.warn("Template image migration failed: {}", e.getMessage());
+        }
     }
 }
@@ -0,0 +1,128 @@
+package com.certificate.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.jmx.export.MBeanExporter;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.jmx.support.ObjectNameManager;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import javax.management.MalformedObjectNameException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Active count, queue depth and rejections of one executor, published over JMX
+ * as {@code com.certificate:type=Executor,name=<name>} by the Spring exporter in
+ * {@link com.certificate.config.AsyncConfig}, which also unregisters it when the
+ * context closes. Rejections are counted
+ * and logged before the pool's own policy (caller-runs, discard, ...) applies.
+ * Thread-per-task (virtual thread) executors have no pool or queue; their
+ * tasks are counted through {@link #decorator()} instead.
+ */
+@Slf4j
+@ManagedResource(description = "Executor activity, queue depth and rejections")
+public class ExecutorStats {
+
+    private final String name;
+    private final ThreadPoolTaskExecutor executor;
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+
+    public ExecutorStats(String name, ThreadPoolTaskExecutor executor) {
+        this.name = name;
+        this.executor = executor;
+    }
+
+    /**
+     * Stats for an executor that starts a thread per task
+     */
+    public ExecutorStats(String name) {
+        this(name, null);
+    }
+
+    /**
+     * Count running and completed tasks of a thread-per-task executor
+     */
+    public TaskDecorator decorator() {
+        return task -> () -> {
+            running.incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                running.decrementAndGet();
+                completed.incrementAndGet();
+            }
+        };
+    }
+
+    /**
+     * Wrap a rejection policy so every rejection is counted
+     */
+    public RejectedExecutionHandler counting(RejectedExecutionHandler policy) {
+        return (task, pool) -> {
+            long count = rejected.incrementAndGet();
+            // Log the first rejection and then every 1000th, not every task of a flood
+            if (count == 1 || count % 1000 == 0) {
+                log.warn("{} executor saturated ({} rejections so far, queue {}), applying {}", name, count,
+                        pool.getQueue().size(), policy.getClass().getSimpleName());
+            }
+            policy.rejectedExecution(task, pool);
+        };
+    }
+
+    public void register(MBeanExporter exporter) {
+        try {
+            exporter.registerManagedResource(this,
+                    ObjectNameManager.getInstance("com.certificate:type=Executor,name=" + name));
+        } catch (MalformedObjectNameException | RuntimeException e) {
+            log.warn("Failed to register JMX stats for {} executor: {}", name, e.getMessage());
+        }
+    }
+
+    @ManagedAttribute
+    public int getActiveCount() {
+        return executor != null ? executor.getActiveCount() : running.get();
+    }
+
+    @ManagedAttribute
+    public int getPoolSize() {
+        return executor != null ? executor.getPoolSize() : running.get();
+    }
+
+    /**
+     * -1 when threads are not pooled
+     */
+    @ManagedAttribute
+    public int getMaxPoolSize() {
+        return executor != null ? executor.getMaxPoolSize() : -1;
+    }
+
+    @ManagedAttribute
+    public int getQueueSize() {
+        return executor != null ? executor.getQueueSize() : 0;
+    }
+
+    @ManagedAttribute
+    public int getQueueRemainingCapacity() {
+        if (executor == null) {
+            return Integer.MAX_VALUE;
+        }
+        ThreadPoolExecutor pool = executor.getThreadPoolExecutor();
+        return pool.getQueue().remainingCapacity();
+    }
+
+    @ManagedAttribute
+    public long getCompletedTaskCount() {
+        return executor != null ? executor.getThreadPoolExecutor().getCompletedTaskCount() : completed.get();
+    }
+
+    @ManagedAttribute
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+}
@@ -0,0 +1,81 @@
+package com.certificate.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+
+class JwtAuthenticationFilterTest {
+
+    private static final String STREAM = "/collaboration/messages/stream";
+
+    private JwtUtil jwtUtil;
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "0123456789abcdef0123456789abcdef0123456789abcdef");
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 3_600_000L);
+        ReflectionTestUtils.setField(jwtUtil, "streamTicketExpiration", 60_000L);
+        jwtUtil.init();
+        filter = new JwtAuthenticationFilter(jwtUtil, mock(CustomUserDetailsService.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void streamTicketOpensTheStream() throws Exception {
+        Authentication auth = filter(STREAM, null, jwtUtil.generateStreamTicket("a@x", 7L));
+        assertEquals("a@x", auth.getName());
+        assertEquals(7L, ((AuthenticatedUser) auth.getPrincipal()).id());
+    }
+
+    @Test
+    void loginTokenIsNotAcceptedInTheUrl() throws Exception {
+        assertNull(filter(STREAM, null, jwtUtil.generateToken("a@x", 7L)));
+    }
+
+    @Test
+    void streamTicketIsNotAcceptedAsBearerToken() throws Exception {
+        assertNull(filter("/events", jwtUtil.generateStreamTicket("a@x", 7L), null));
+        assertNull(filter(STREAM, jwtUtil.generateStreamTicket("a@x", 7L), null));
+    }
+
+    @Test
+    void ticketIsOnlyReadOnTheStreamPath() throws Exception {
+        assertNull(filter("/events/stream", null, jwtUtil.generateStreamTicket("a@x", 7L)));
+    }
+
+    @Test
+    void loginTokenStillWorksAsBearerToken() throws Exception {
+        assertEquals("a@x", filter("/events", jwtUtil.generateToken("a@x", 7L), null).getName());
+    }
+
+    private Authentication filter(String path, String bearer, String ticket) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api" + path);
+        request.setContextPath("/api");
+        request.setServletPath(path);
+        if (bearer != null) {
+            request.addHeader("Authorization", "Bearer " + bearer);
+        }
+        if (ticket != null) {
+            request.setParameter("ticket", ticket);
+        }
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
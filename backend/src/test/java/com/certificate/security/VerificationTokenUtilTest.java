@@ -0,0 +1,116 @@
+package com.certificate.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VerificationTokenUtilTest {
+
+    private static final String ID = "3f2b8c1e-9d4a-4e6f-8a7b-1c2d3e4f5a6b";
+    private static final LocalDate ISSUED = LocalDate.of(2025, 3, 14);
+
+    private VerificationTokenUtil tokens;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        tokens = create("0123456789abcdef0123456789abcdef0123456789abcdef");
+    }
+
+    @Test
+    void signedTokenVerifiesToItsPayload() {
+        Optional<VerificationTokenUtil.Payload> payload = tokens.verify(tokens.sign(ID, 42L, "Alice Smith", ISSUED));
+
+        assertEquals(Optional.of(new VerificationTokenUtil.Payload(ID, 42L, "Alice Smith", ISSUED)), payload);
+    }
+
+    @Test
+    void nonAsciiNamesRoundTrip() {
+        String name = "Zoë Ñandú 李雷 🎓";
+        assertEquals(name, tokens.verify(tokens.sign(ID, 1L, name, ISSUED)).orElseThrow().participantName());
+        assertEquals("", tokens.verify(tokens.sign(ID, 1L, null, ISSUED)).orElseThrow().participantName());
+    }
+
+    @Test
+    void namesUpToTheLengthFieldAreAcceptedAndLongerOnesRejected() {
+        String longest = "é".repeat(0xFFFF / 2) + "a"; // 65535 bytes in UTF-8
+        assertEquals(longest, tokens.verify(tokens.sign(ID, 1L, longest, ISSUED)).orElseThrow().participantName());
+
+        assertThrows(IllegalArgumentException.class, () -> tokens.sign(ID, 1L, longest + "a", ISSUED));
+    }
+
+    @Test
+    void legacyVersionOneTokensAreStillAccepted() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        UUID id = UUID.fromString(ID);
+        out.writeByte(1);
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+        out.writeLong(7L);
+        out.writeInt((int) ISSUED.toEpochDay());
+        out.writeUTF("Zoë");
+        byte[] payload = bytes.toByteArray();
+        byte[] mac = ReflectionTestUtils.invokeMethod(tokens, "mac", payload);
+
+        String token = encode(payload) + "." + encode(mac);
+
+        assertEquals(Optional.of(new VerificationTokenUtil.Payload(ID, 7L, "Zoë", ISSUED)), tokens.verify(token));
+    }
+
+    @Test
+    void tamperedPayloadOrSignatureIsRejected() throws Exception {
+        String token = tokens.sign(ID, 42L, "Alice", ISSUED);
+        int dot = token.indexOf('.');
+        byte[] payload = Base64.getUrlDecoder().decode(token.substring(0, dot));
+        byte[] signature = Base64.getUrlDecoder().decode(token.substring(dot + 1));
+
+        byte[] otherEvent = payload.clone();
+        otherEvent[24] ^= 1;
+        assertTrue(tokens.verify(encode(otherEvent) + token.substring(dot)).isEmpty());
+
+        byte[] badSignature = signature.clone();
+        badSignature[0] ^= 1;
+        assertTrue(tokens.verify(token.substring(0, dot + 1) + encode(badSignature)).isEmpty());
+
+        assertTrue(tokens.verify(token.substring(0, dot)).isEmpty());
+        assertTrue(tokens.verify(token + ".x").isEmpty());
+        assertTrue(tokens.verify("not base64!." + token.substring(dot + 1)).isEmpty());
+
+        VerificationTokenUtil otherKey = create("another-secret-another-secret-another-secret");
+        assertNotEquals(token, otherKey.sign(ID, 42L, "Alice", ISSUED));
+        assertTrue(otherKey.verify(token).isEmpty());
+    }
+
+    @Test
+    void isTokenTellsTokensFromBareVerificationIds() {
+        assertTrue(VerificationTokenUtil.isToken(tokens.sign(ID, 42L, "Alice", ISSUED)));
+        assertFalse(VerificationTokenUtil.isToken(ID));
+        assertFalse(VerificationTokenUtil.isToken(null));
+        assertFalse(VerificationTokenUtil.isToken(".abc"));
+    }
+
+    private static VerificationTokenUtil create(String secret) throws Exception {
+        VerificationTokenUtil util = new VerificationTokenUtil();
+        ReflectionTestUtils.setField(util, "secret", secret);
+        util.init();
+        return util;
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,78 @@
+package com.certificate.service;
+
+import com.certificate.repository.EventRepository;
+import com.certificate.service.OrganizerIdentityCache.Identity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuditLogWriterTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private AuditLogWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        OrganizerIdentityCache identityCache = mock(OrganizerIdentityCache.class);
+        when(identityCache.findAllByEmail(anyCollection()))
+                .thenReturn(Map.of("a@x", new Identity(7L, "a@x", "A")));
+        writer = new AuditLogWriter(jdbcTemplate, identityCache, mock(EventRepository.class),
+                mock(MessageNotificationService.class), 100, 500, 50, 5);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writer.stop();
+    }
+
+    @Test
+    void failedBatchIsWrittenRowByRowSkippingTheBadEntry() {
+        doThrow(new DataIntegrityViolationException("batch")).when(jdbcTemplate).batchUpdate(anyString(), anyList());
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenAnswer(invocation -> {
+            if (Long.valueOf(2L).equals(invocation.getArgument(1))) {
+                throw new DataIntegrityViolationException("event 2 deleted");
+            }
+            return 1;
+        });
+
+        writer.submit(1L, "a@x", "A", "first");
+        writer.submit(2L, "a@x", "B", "bad");
+        writer.submit(3L, "a@x", "C", "third");
+        writer.start();
+
+        verify(jdbcTemplate, timeout(2000)).update(anyString(), eq(1L), eq(7L), eq("A"), eq("first"), any());
+        verify(jdbcTemplate, timeout(2000)).update(anyString(), eq(3L), eq(7L), eq("C"), eq("third"), any());
+    }
+
+    @Test
+    void entriesAreRequeuedWhileTheDatabaseIsUnavailable() {
+        doThrow(new DataAccessResourceFailureException("down")).when(jdbcTemplate).batchUpdate(anyString(), anyList());
+        when(jdbcTemplate.update(anyString(), any(Object[].class)))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(1);
+
+        writer.submit(1L, "a@x", "A", "first");
+        writer.start();
+
+        verify(jdbcTemplate, timeout(2000).times(2)).update(anyString(), eq(1L), eq(7L), eq("A"), eq("first"), any());
+        verify(jdbcTemplate, atLeast(2)).batchUpdate(anyString(), anyList());
+    }
+}
@@ -0,0 +1,151 @@
+package com.certificate.service;
+
+import com.certificate.entity.Certificate;
+import com.certificate.entity.Participant;
+import com.certificate.repository.CertificateRepository;
+import com.certificate.repository.EventRepository;
+import com.certificate.repository.ParticipantRepository;
+import com.certificate.security.VerificationTokenUtil;
+import com.certificate.util.QRCodeGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CertificateRendererTest {
+
+    private static final byte[] PDF = "%PDF-1.7 certificate".getBytes(StandardCharsets.UTF_8);
+
+    private final Map<String, byte[]> files = new ConcurrentHashMap<>();
+    private final AtomicInteger renders = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private CertificateRepository certificateRepository;
+    private CertificateStore store;
+    private CertificateRenderer renderer;
+    private Certificate certificate;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        certificate = new Certificate();
+        certificate.setId(7L);
+        certificate.setEventId(3L);
+        certificate.setParticipantId(11L);
+        certificate.setVerificationId(UUID.randomUUID().toString());
+        certificate.setGenerationStatus("GENERATED");
+        certificate.setFilePath(CertificateStore.keyFor(3L, "Alice_" + certificate.getVerificationId() + ".pdf"));
+
+        Participant participant = new Participant();
+        participant.setName("Alice");
+        ParticipantRepository participantRepository = mock(ParticipantRepository.class);
+        when(participantRepository.findById(11L)).thenReturn(Optional.of(participant));
+        EventRepository eventRepository = mock(EventRepository.class);
+        when(eventRepository.findById(3L)).thenReturn(Optional.empty());
+        TemplateService templateService = mock(TemplateService.class);
+        when(templateService.getRenderTemplate(3L)).thenReturn(
+                new TemplateService.RenderTemplate("hash", new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB)));
+        QRCodeGenerator qrCodeGenerator = mock(QRCodeGenerator.class);
+        when(qrCodeGenerator.generateQRCode(anyString(), anyInt(), anyInt()))
+                .thenReturn(new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB));
+
+        // Rendering blocks until the test has every caller waiting on it
+        PngCertificateGenerator pngGenerator = mock(PngCertificateGenerator.class);
+        when(pngGenerator.generateCertificatePdf(any(), eq("Alice"), any(), any())).thenAnswer(invocation -> {
+            renders.incrementAndGet();
+            assertTrue(release.await(10, TimeUnit.SECONDS));
+            return PDF.clone();
+        });
+
+        store = mock(CertificateStore.class);
+        when(store.read(anyString())).thenAnswer(invocation -> {
+            byte[] data = files.get(invocation.<String>getArgument(0));
+            if (data == null) {
+                throw new NoSuchFileException(invocation.getArgument(0));
+            }
+            return data.clone();
+        });
+        when(store.store(anyString(), any(), anyString())).thenAnswer(invocation -> {
+            files.put(invocation.getArgument(0), invocation.<byte[]>getArgument(1).clone());
+            return CompletableFuture.completedFuture(null);
+        });
+
+        certificateRepository = mock(CertificateRepository.class);
+        renderer = new CertificateRenderer(participantRepository, certificateRepository, eventRepository,
+                templateService, pngGenerator, qrCodeGenerator, mock(VerificationTokenUtil.class), store,
+                1 << 20, false);
+    }
+
+    @Test
+    void concurrentRequestsForAMissingFileShareOneRender() throws Exception {
+        int callers = 8;
+        List<byte[]> results = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    byte[] data = renderer.getPdf(certificate);
+                    synchronized (results) {
+                        results.add(data);
+                    }
+                } catch (Throwable e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        // One caller blocks in the render, the others on its result
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!threads.stream().allMatch(t -> t.getState() == Thread.State.WAITING
+                || t.getState() == Thread.State.TIMED_WAITING)) {
+            assertTrue(System.nanoTime() < deadline, "callers did not all block");
+            Thread.sleep(5);
+        }
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join(10_000);
+        }
+
+        assertEquals(List.of(), failures);
+        assertEquals(1, renders.get());
+        assertEquals(callers, results.size());
+        results.forEach(data -> assertArrayEquals(PDF, data));
+        assertEquals(callers, results.stream().map(System::identityHashCode).distinct().count(),
+                "each caller gets its own copy");
+        verify(store, times(1)).store(eq(certificate.getFilePath()), any(), eq("application/pdf"));
+        verify(certificateRepository).recordTemplate(7L, "hash");
+
+        // Later requests are served from the cache without rendering or reading again
+        assertArrayEquals(PDF, renderer.getPdf(certificate));
+        assertEquals(1, renders.get());
+        verify(store, times(callers)).read(anyString());
+    }
+}
@@ -0,0 +1,146 @@
+package com.certificate.service;
+
+import com.certificate.config.SupabaseConfig;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the storage client against a local HTTP stand-in for the Supabase
+ * storage API that answers 503 to every Nth request.
+ */
+class SupabaseStorageServiceTest {
+
+    private static final int MAX_IN_FLIGHT = 4;
+    private static final int MAX_RETRIES = 3;
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger rejected = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger maxActive = new AtomicInteger();
+    private final Set<String> failedOnce = ConcurrentHashMap.newKeySet();
+    private final Map<String, String> stored = new ConcurrentHashMap<>();
+
+    private volatile int failEvery;
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private ExecutorService storageExecutor;
+    private SupabaseStorageService storage;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        serverThreads = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(serverThreads);
+        server.start();
+
+        SupabaseConfig config = new SupabaseConfig();
+        ReflectionTestUtils.setField(config, "supabaseUrl", "http://127.0.0.1:" + server.getAddress().getPort());
+        ReflectionTestUtils.setField(config, "supabaseKey", "test-key");
+        ReflectionTestUtils.setField(config, "bucketName", "certificates");
+        storageExecutor = Executors.newFixedThreadPool(4);
+        storage = new SupabaseStorageService(config, storageExecutor, MAX_IN_FLIGHT, MAX_RETRIES, 5);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        server.stop(0);
+        serverThreads.shutdownNow();
+        storageExecutor.shutdownNow();
+        storageExecutor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void bulkUploadRetriesRejectedRequestsAndStaysWithinTheInFlightLimit() throws IOException {
+        failEvery = 3;
+        Map<String, Path> files = new LinkedHashMap<>();
+        for (int i = 0; i < 30; i++) {
+            Path file = dir.resolve("cert-" + i + ".pdf");
+            Files.writeString(file, "certificate " + i);
+            files.put("01/1/cert-" + i + ".pdf", file);
+        }
+
+        List<String> urls = storage.uploadAllAsync(files).join();
+
+        assertEquals(30, urls.size());
+        assertTrue(urls.get(0).endsWith("/storage/v1/object/public/certificates/01/1/cert-0.pdf"));
+        assertEquals(30, stored.size());
+        assertEquals("certificate 7", stored.get("/storage/v1/object/certificates/01/1/cert-7.pdf"));
+        assertTrue(rejected.get() > 0, "the stand-in should have rejected some requests");
+        assertEquals(30 + rejected.get(), requests.get());
+        assertTrue(maxActive.get() <= MAX_IN_FLIGHT, "at most " + MAX_IN_FLIGHT + " in flight, saw " + maxActive);
+        assertTrue(maxActive.get() > 1, "uploads should overlap");
+    }
+
+    @Test
+    void uploadFailsOnceRetriesAreExhausted() {
+        failEvery = 1;
+        CompletionException failure = assertThrows(CompletionException.class,
+                () -> storage.uploadFileAsync("x".getBytes(StandardCharsets.UTF_8), "01/1/x.pdf",
+                        "application/pdf").join());
+
+        assertInstanceOf(IOException.class, failure.getCause());
+        assertEquals(MAX_RETRIES + 1, requests.get());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        int current = active.incrementAndGet();
+        maxActive.accumulateAndGet(current, Math::max);
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            String body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            Thread.sleep(20);
+
+            // Each path is rejected at most once (failEvery = 1 rejects everything)
+            boolean reject = requests.incrementAndGet() % failEvery == 0 && (failEvery == 1 || failedOnce.add(path));
+            byte[] response = (reject ? "{\"error\":\"unavailable\"}" : "{}").getBytes(StandardCharsets.UTF_8);
+            if (reject) {
+                rejected.incrementAndGet();
+            } else {
+                stored.put(path, body);
+            }
+            exchange.sendResponseHeaders(reject ? 503 : 200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            active.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.certificate.service;
+
+import com.certificate.repository.CertificateRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cache-hit throughput with one thread and with one per core. Not part of the
+ * unit suite; run with {@code mvn test -Pbenchmark}. Prints the numbers for
+ * comparison, since absolute throughput depends on the machine.
+ */
+@Tag("benchmark")
+class VerificationCacheBenchmarkTest {
+
+    private static final String VALID_ID = UUID.randomUUID().toString();
+
+    @Test
+    void hitThroughput() throws Exception {
+        CertificateRepository certificateRepository = mock(CertificateRepository.class);
+        when(certificateRepository.findVerificationRow(VALID_ID)).thenReturn(List.<Object[]>of(new Object[] {
+                1L, "GENERATED", "Alice", "Event", LocalDate.of(2025, 1, 1), "Organizer", "Institute",
+                LocalDateTime.of(2025, 1, 2, 10, 0) }));
+        VerificationCache cache = new VerificationCache(certificateRepository,
+                new ConcurrencyLimits(false, 1, 4, 0, 2, 2000, 10), mock(ClusterBus.class), 1000, 600, 1000, 60);
+
+        cache.verify(VALID_ID);
+        int cores = Runtime.getRuntime().availableProcessors();
+        long opsPerThread = 500_000;
+
+        run(cache, 1, opsPerThread); // warm-up
+        double single = run(cache, 1, opsPerThread);
+        double parallel = run(cache, cores, opsPerThread);
+        System.out.printf("VerificationCache hits: 1 thread %.0f ops/s, %d threads %.0f ops/s (%.1fx)%n",
+                single, cores, parallel, parallel / single);
+
+        verify(certificateRepository, times(1)).findVerificationRow(VALID_ID);
+    }
+
+    private static double run(VerificationCache cache, int threads, long opsPerThread) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (long i = 0; i < opsPerThread; i++) {
+                        cache.verify(VALID_ID);
+                    }
+                    return null;
+                }));
+            }
+            long began = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+            return threads * opsPerThread / ((System.nanoTime() - began) / 1e9);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
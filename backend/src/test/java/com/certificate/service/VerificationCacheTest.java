@@ -0,0 +1,84 @@
+package com.certificate.service;
+
+import com.certificate.dto.CertificateVerificationDTO;
+import com.certificate.repository.CertificateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class VerificationCacheTest {
+
+    private static final String VALID_ID = UUID.randomUUID().toString();
+    private static final String PENDING_ID = UUID.randomUUID().toString();
+
+    private CertificateRepository certificateRepository;
+    private VerificationCache cache;
+
+    @BeforeEach
+    void setUp() {
+        certificateRepository = mock(CertificateRepository.class);
+        when(certificateRepository.findVerificationRow(anyString())).thenReturn(List.of());
+        when(certificateRepository.findVerificationRow(VALID_ID)).thenReturn(List.<Object[]>of(row("GENERATED")));
+        when(certificateRepository.findVerificationRow(PENDING_ID)).thenReturn(List.<Object[]>of(row("PENDING")));
+        cache = new VerificationCache(certificateRepository, new ConcurrencyLimits(false, 1, 4, 0, 2, 2000, 10),
+                mock(ClusterBus.class), 1000, 600, 1000, 60);
+    }
+
+    @Test
+    void validCertificateIsLoadedOnce() {
+        for (int i = 0; i < 100; i++) {
+            CertificateVerificationDTO dto = cache.verify(VALID_ID);
+            assertTrue(dto.isValid());
+            assertEquals("Alice", dto.getParticipantName());
+        }
+        verify(certificateRepository, times(1)).findVerificationRow(VALID_ID);
+    }
+
+    @Test
+    void unknownAndInvalidIdsAreRememberedNegatively() {
+        String unknown = UUID.randomUUID().toString();
+        for (int i = 0; i < 10; i++) {
+            assertThrows(RuntimeException.class, () -> cache.verify(unknown));
+            assertThrows(RuntimeException.class, () -> cache.verify(PENDING_ID));
+        }
+        verify(certificateRepository, times(1)).findVerificationRow(unknown);
+        verify(certificateRepository, times(1)).findVerificationRow(PENDING_ID);
+    }
+
+    @Test
+    void malformedIdsNeverReachTheDatabase() {
+        assertThrows(RuntimeException.class, () -> cache.verify("not-a-uuid"));
+        assertThrows(RuntimeException.class, () -> cache.verify(null));
+        verify(certificateRepository, times(0)).findVerificationRow(anyString());
+    }
+
+    @Test
+    void invalidateReloadsTheCertificate() {
+        cache.verify(VALID_ID);
+        cache.invalidate(VALID_ID);
+        cache.verify(VALID_ID);
+        verify(certificateRepository, times(2)).findVerificationRow(VALID_ID);
+
+        cache.invalidateEvent(1L);
+        cache.verify(VALID_ID);
+        verify(certificateRepository, times(3)).findVerificationRow(VALID_ID);
+    }
+
+    private static Object[] row(String status) {
+        return new Object[] { 1L, status, "Alice", "Event", LocalDate.of(2025, 1, 1), "Organizer", "Institute",
+                LocalDateTime.of(2025, 1, 2, 10, 0) };
+    }
+}
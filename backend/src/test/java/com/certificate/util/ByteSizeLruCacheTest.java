@@ -0,0 +1,84 @@
+package com.certificate.util;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ByteSizeLruCacheTest {
+
+    @ParameterizedTest
+    @ValueSource(booleans = { false, true })
+    void evictsLeastRecentlyUsedEntriesToStayWithinTheByteBudget(boolean offHeap) {
+        ByteSizeLruCache<String> cache = new ByteSizeLruCache<>(100, offHeap);
+        cache.put("a", new byte[25]);
+        cache.put("b", new byte[25]);
+        cache.put("c", new byte[25]);
+        cache.put("d", new byte[25]);
+        assertEquals(100, cache.getTotalBytes());
+
+        // Touching "a" makes "b" the least recently used
+        assertNotNull(cache.get("a"));
+        cache.put("e", new byte[20]);
+
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("a"));
+        assertNotNull(cache.get("c"));
+        assertNotNull(cache.get("e"));
+        assertEquals(95, cache.getTotalBytes());
+        assertEquals(4, cache.size());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = { false, true })
+    void replacingAnEntryReleasesItsOldSize(boolean offHeap) {
+        ByteSizeLruCache<String> cache = new ByteSizeLruCache<>(100, offHeap);
+        cache.put("a", new byte[20]);
+        cache.put("a", new byte[5]);
+        assertEquals(5, cache.getTotalBytes());
+
+        cache.remove("a");
+        assertEquals(0, cache.getTotalBytes());
+        assertEquals(0, cache.size());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = { false, true })
+    void itemsOverAQuarterOfTheBudgetAreNotCached(boolean offHeap) {
+        ByteSizeLruCache<String> cache = new ByteSizeLruCache<>(100, offHeap);
+        cache.put("small", new byte[25]);
+        cache.put("large", new byte[26]);
+
+        assertNull(cache.get("large"));
+        assertNotNull(cache.get("small"));
+        assertEquals(25, cache.getTotalBytes());
+
+        // An oversized replacement drops the old value rather than keeping it stale
+        cache.put("small", new byte[26]);
+        assertNull(cache.get("small"));
+        assertEquals(0, cache.getTotalBytes());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = { false, true })
+    void putAndGetWorkOnCopies(boolean offHeap) {
+        ByteSizeLruCache<String> cache = new ByteSizeLruCache<>(100, offHeap);
+        byte[] data = { 1, 2, 3 };
+        cache.put("a", data);
+        data[0] = 9;
+
+        byte[] first = cache.get("a");
+        assertArrayEquals(new byte[] { 1, 2, 3 }, first);
+        first[1] = 9;
+
+        byte[] second = cache.get("a");
+        assertArrayEquals(new byte[] { 1, 2, 3 }, second);
+        assertNotSame(first, second);
+        assertEquals(2, cache.getHits());
+        assertEquals(0, cache.getMisses());
+    }
+}
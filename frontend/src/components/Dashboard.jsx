@@ -19,6 +19,8 @@ function Dashboard() {
     const [notifications, setNotifications] = useState([]);
     const [showNotifications, setShowNotifications] = useState(false);
     const [isNotifVibrating, setIsNotifVibrating] = useState(false);
+    // Unread messages as counted by the server, pushed on connect and on every change
+    const [unreadCount, setUnreadCount] = useState(0);
 
     // Collaboration Request State
     const [pendingRequests, setPendingRequests] = useState([]);
@@ -52,10 +54,48 @@ function Dashboard() {
     useEffect(() => {
         loadData();
         loadRequests();
-        const interval = setInterval(loadRequests, 10000);
-        return () => clearInterval(interval);
+        // New messages and collaboration changes are pushed over the event stream instead of polled
+        const subscription = messageService.subscribe({
+            onMessage: addMessageNotification,
+            onUnreadCount: setUnreadCount,
+            onActivity: loadRequests,
+            onReconnect: loadRequests,
+        });
+        return () => subscription.close();
     }, []);
 
+    const addMessageNotification = (msg) => {
+        const notifKey = `msg_${msg.id}`;
+        const alreadyToastShown = localStorage.getItem(notifKey);
+
+        // Add to notifications list if not already present
+        setNotifications(prev => {
+            const uniqueId = msg.id;
+            const dismissed = JSON.parse(localStorage.getItem('dismissed_notif_ids') || '[]');
+            if (dismissed.includes(uniqueId)) return prev;
+
+            if (prev.some(n => n.id === uniqueId || n.msgId === uniqueId)) return prev;
+
+            const newNotif = {
+                id: uniqueId,
+                msgId: uniqueId,
+                type: 'info',
+                message: `New message from ${msg.senderName || 'Unknown'}: ${msg.content ? (msg.content.substring(0, 30) + (msg.content.length > 30 ? '...' : '')) : ''}`,
+                time: new Date(msg.timestamp).toLocaleTimeString([], { hour: '2-digit', minute: '2-digit' }),
+                eventId: msg.eventId,
+                targetTab: 'messages'
+            };
+
+            if (!alreadyToastShown) {
+                setIsNotifVibrating(true);
+                setTimeout(() => setIsNotifVibrating(false), 500);
+                localStorage.setItem(notifKey, 'true');
+            }
+
+            return [newNotif, ...prev].slice(0, 10);
+        });
+    };
+
     const loadRequests = async () => {
         try {
             const [reqs, sentReqs, actionLogs, unreadMsgs] = await Promise.all([
@@ -68,37 +108,7 @@ function Dashboard() {
 
             // Process unread messages as notifications
             if (Array.isArray(unreadMsgs)) {
-                unreadMsgs.forEach(msg => {
-                    const notifKey = `msg_${msg.id}`;
-                    const alreadyToastShown = localStorage.getItem(notifKey);
-
-                    // Add to notifications list if not already present
-                    setNotifications(prev => {
-                        const uniqueId = msg.id;
-                        const dismissed = JSON.parse(localStorage.getItem('dismissed_notif_ids') || '[]');
-                        if (dismissed.includes(uniqueId)) return prev;
-
-                        if (prev.some(n => n.id === uniqueId || n.msgId === uniqueId)) return prev;
-
-                        const newNotif = {
-                            id: uniqueId,
-                            msgId: uniqueId,
-                            type: 'info',
-                            message: `New message from ${msg.senderName || 'Unknown'}: ${msg.content ? (msg.content.substring(0, 30) + (msg.content.length > 30 ? '...' : '')) : ''}`,
-                            time: new Date(msg.timestamp).toLocaleTimeString([], { hour: '2-digit', minute: '2-digit' }),
-                            eventId: msg.eventId,
-                            targetTab: 'messages'
-                        };
-
-                        if (!alreadyToastShown) {
-                            setIsNotifVibrating(true);
-                            setTimeout(() => setIsNotifVibrating(false), 500);
-                            localStorage.setItem(notifKey, 'true');
-                        }
-
-                        return [newNotif, ...prev].slice(0, 10);
-                    });
-                });
+                unreadMsgs.forEach(addMessageNotification);
             }
 
             // Process sent requests as notifications for the owner
@@ -274,6 +284,9 @@ function Dashboard() {
         }
     };
 
+    // Messages are counted by the server; the list only holds the latest few of them
+    const badgeCount = unreadCount + notifications.filter(n => !n.msgId).length;
+
     if (loading) {
         return <div className="spinner"></div>;
     }
@@ -313,8 +326,8 @@ function Dashboard() {
                                     title="Notifications"
                                 >
                                     <i className="fa-solid fa-bell" style={{ fontSize: '18px', color: '#1e3a8a' }}></i>
-                                    {notifications.length > 0 &&
-                                        <span className="notification-badge">{notifications.length}</span>
+                                    {badgeCount > 0 &&
+                                        <span className="notification-badge">{badgeCount}</span>
                                     }
                                 </button>
 
@@ -1,5 +1,5 @@
-import React, { useState, useEffect } from 'react';
-import { participantService, certificateService, authService } from '../services/authService';
+import React, { useState, useEffect, useRef } from 'react';
+import { participantService, certificateService, templateService, authService } from '../services/authService';
 import './EventManagement.css';
 import CollaboratorsTab from './CollaboratorsTab';
 import MessagesTab from './MessagesTab';
@@ -15,8 +15,10 @@ function EventManagement({ event, onBack, onNotify, initialTab = 'participants'
     const [activeTab, setActiveTab] = useState(initialTab);
     const [participants, setParticipants] = useState([]);
     const [certificateStatus, setCertificateStatus] = useState([]);
+    const statusWatermark = useRef(null);
     const [loading, setLoading] = useState(false);
     const [isVibrating, setIsVibrating] = useState(false);
+    const [preview, setPreview] = useState(null);
 
     // Toast State
     const [toast, setToast] = useState({ show: false, message: '', type: '' });
@@ -52,8 +54,8 @@ function EventManagement({ event, onBack, onNotify, initialTab = 'participants'
 
         if (needsPolling) {
             const interval = setInterval(() => {
-                loadCertificateStatus();
-            }, 3000); // Poll every 3 seconds
+                pollCertificateStatus();
+            }, 3000); // Poll every 3 seconds, fetching only rows changed since the last poll
             return () => clearInterval(interval);
         }
     }, [certificateStatus]);
@@ -97,14 +99,41 @@ function EventManagement({ event, onBack, onNotify, initialTab = 'participants'
 
     const loadCertificateStatus = async () => {
         try {
-            const data = await certificateService.getCertificateStatus(event.id);
-            setCertificateStatus(Array.isArray(data) ? data : []);
+            const data = await certificateService.getCertificateStatusChanges(event.id);
+            statusWatermark.current = data?.watermark || null;
+            setCertificateStatus(Array.isArray(data?.items) ? data.items : []);
         } catch (error) {
             console.error('Failed to load certificate status:', error);
+            statusWatermark.current = null;
             setCertificateStatus([]);
         }
     };
 
+    const pollCertificateStatus = async () => {
+        if (!statusWatermark.current) {
+            await loadCertificateStatus();
+            return;
+        }
+        try {
+            const data = await certificateService.getCertificateStatusChanges(event.id, statusWatermark.current);
+            statusWatermark.current = data.watermark;
+            if (!data.items?.length) return;
+
+            const changed = new Map(data.items.map(row => [row.participantId, row]));
+            setCertificateStatus(prev => {
+                const merged = prev.map(row => {
+                    const update = changed.get(row.participantId);
+                    if (!update) return row;
+                    changed.delete(row.participantId);
+                    return update;
+                });
+                return [...merged, ...changed.values()];
+            });
+        } catch (error) {
+            console.error('Failed to poll certificate status:', error);
+        }
+    };
+
     const handleFileUpload = async (e) => {
         const file = e.target.files[0];
         if (!file) return;
@@ -138,8 +167,8 @@ function EventManagement({ event, onBack, onNotify, initialTab = 'participants'
 
         try {
             await certificateService.generateCertificates(event.id);
-            showToast('Certificates generated successfully!', 'success');
-            onNotify?.('success', `Certificates generated for ${event.eventName}`);
+            showToast('Certificates queued for generation', 'success');
+            onNotify?.('success', `Certificates queued for ${event.eventName}`);
             await loadCertificateStatus();
             setActiveTab('certificates');
         } catch (error) {
@@ -167,6 +196,21 @@ function EventManagement({ event, onBack, onNotify, initialTab = 'participants'
         }
     };
 
+    // Small server-rendered image instead of the full PDF, for a quick look
+    const handlePreviewCertificate = async (cert) => {
+        try {
+            const blob = await certificateService.getCertificatePreview(cert.id);
+            setPreview({ url: window.URL.createObjectURL(blob), title: cert.participantName });
+        } catch (error) {
+            showToast('Failed to load certificate preview', 'error');
+        }
+    };
+
+    const closePreview = () => {
+        window.URL.revokeObjectURL(preview.url);
+        setPreview(null);
+    };
+
     const handleDownloadAll = async () => {
         setLoading(true);
         try {
@@ -261,6 +305,17 @@ function EventManagement({ event, onBack, onNotify, initialTab = 'participants'
                     onClose={hideToast}
                 />
             )}
+            {preview && (
+                <div className="preview-overlay" onClick={closePreview}>
+                    <div className="preview-content" onClick={e => e.stopPropagation()}>
+                        <div className="preview-header">
+                            <h3>{preview.title}</h3>
+                            <button className="preview-close" onClick={closePreview}>&times;</button>
+                        </div>
+                        <img src={preview.url} alt={`Certificate of ${preview.title}`} />
+                    </div>
+                </div>
+            )}
             <nav className="navbar">
                 <div className="navbar-content">
                     <div className="navbar-brand">
@@ -338,7 +393,9 @@ function EventManagement({ event, onBack, onNotify, initialTab = 'participants'
 
                 {activeTab === 'certificates' && (
                     <CertificatesTab
+                        eventId={event.id}
                         certificates={certificateStatus}
+                        onPreviewCertificate={handlePreviewCertificate}
                         onDownloadCertificate={handleDownloadCertificate}
                         onDownloadAll={handleDownloadAll}
                         onSendEmail={handleSendEmail}
@@ -462,8 +519,26 @@ function ParticipantsTab({
     );
 }
 
-function CertificatesTab({ certificates, onDownloadCertificate, onDownloadAll, onSendEmail, onSendAllEmails, loading }) {
+function CertificatesTab({ eventId, certificates, onPreviewCertificate, onDownloadCertificate, onDownloadAll, onSendEmail, onSendAllEmails, loading }) {
     const generatedCount = certificates.filter(c => c.generationStatus === 'GENERATED').length;
+    const [templatePreviewUrl, setTemplatePreviewUrl] = useState(null);
+
+    // Thumbnail of the template with a sample name; hidden if the event has none
+    useEffect(() => {
+        let url = null;
+        let cancelled = false;
+        templateService.getTemplatePreview(eventId, 'Participant Name', 320)
+            .then(blob => {
+                if (cancelled) return;
+                url = window.URL.createObjectURL(blob);
+                setTemplatePreviewUrl(url);
+            })
+            .catch(() => setTemplatePreviewUrl(null));
+        return () => {
+            cancelled = true;
+            if (url) window.URL.revokeObjectURL(url);
+        };
+    }, [eventId]);
 
     return (
         <div className="tab-content">
@@ -487,6 +562,9 @@ function CertificatesTab({ certificates, onDownloadCertificate, onDownloadAll, o
                         </button>
                     </div>
                 </div>
+                {templatePreviewUrl && (
+                    <img src={templatePreviewUrl} alt="Certificate template" className="template-preview" />
+                )}
             </div>
 
             {certificates.length > 0 && (
@@ -521,6 +599,12 @@ function CertificatesTab({ certificates, onDownloadCertificate, onDownloadAll, o
                                         <td>
                                             {cert.generationStatus === 'GENERATED' && (
                                                 <div className="action-buttons">
+                                                    <button
+                                                        onClick={() => onPreviewCertificate(cert)}
+                                                        className="btn btn-secondary btn-sm"
+                                                    >
+                                                        Preview
+                                                    </button>
                                                     <button
                                                         onClick={() => onDownloadCertificate(cert.id)}
                                                         className="btn btn-primary btn-sm"
@@ -24,8 +24,16 @@ function MessagesTab({ eventId, event, isOwner }) {
     useEffect(() => {
         loadMembers();
         loadMessages();
-        const interval = setInterval(loadMessages, 5000); // More frequent updates for chat
-        return () => clearInterval(interval);
+        // New messages for this event arrive over the event stream; a reconnect reloads what was missed
+        const subscription = messageService.subscribe({
+            onMessage: (msg) => {
+                if (Number(msg.eventId) !== Number(eventId)) return;
+                setMessages(prev => prev.some(m => m.id === msg.id) ? prev : [...prev, msg]);
+                messageService.markAsRead(eventId).catch(error => console.error('Failed to mark messages as read:', error));
+            },
+            onReconnect: loadMessages,
+        });
+        return () => subscription.close();
     }, [eventId]);
 
     const loadMembers = async () => {
@@ -108,6 +108,27 @@ export const certificateService = {
         return response.data;
     },
 
+    // Rows changed after the `since` watermark (all rows when omitted) plus the next watermark
+    getCertificateStatusChanges: async (eventId, since) => {
+        const response = await api.get(`/certificates/events/${eventId}/status/changes`, {
+            params: since ? { since } : {},
+        });
+        return response.data;
+    },
+
+    getCertificateSummary: async (eventId) => {
+        const response = await api.get(`/certificates/events/${eventId}/summary`);
+        return response.data;
+    },
+
+    getCertificatePreview: async (certificateId, width = 480, format = 'jpeg') => {
+        const response = await api.get(`/certificates/${certificateId}/preview`, {
+            params: { width, format },
+            responseType: 'blob',
+        });
+        return response.data;
+    },
+
     downloadCertificate: async (certificateId) => {
         const response = await api.get(`/certificates/${certificateId}/download`, {
             responseType: 'blob',
@@ -161,6 +182,14 @@ export const templateService = {
         }
     },
 
+    getTemplatePreview: async (eventId, name, width = 480) => {
+        const response = await api.get(`/events/${eventId}/template/preview`, {
+            params: { name, width },
+            responseType: 'blob',
+        });
+        return response.data;
+    },
+
     deleteTemplate: async (eventId) => {
         const response = await api.delete(`/events/${eventId}/template`);
         return response.data;
@@ -251,5 +280,77 @@ export const messageService = {
     markAsRead: async (eventId) => {
         const response = await api.post(`/collaboration/messages/event/${eventId}/read`);
         return response.data;
+    },
+    // Short-lived ticket that opens the event stream; the login token never goes in a URL
+    getStreamTicket: async () => {
+        const response = await api.post('/collaboration/messages/stream-ticket');
+        return response.data.ticket;
+    },
+    // Push channel for new messages ("message"), badge count ("unread-count") and collaboration
+    // changes ("activity"). All subscribers of a tab share one stream; returns { close } for cleanup.
+    subscribe: (handlers) => {
+        messageStream.listeners.add(handlers);
+        if (messageStream.listeners.size === 1) {
+            connectMessageStream(false);
+        }
+        return {
+            close: () => {
+                messageStream.listeners.delete(handlers);
+                if (messageStream.listeners.size === 0) {
+                    disconnectMessageStream();
+                }
+            },
+        };
+    }
+};
+
+const messageStream = { source: null, retryTimer: null, generation: 0, listeners: new Set() };
+
+const notifyListeners = (name, ...args) => {
+    messageStream.listeners.forEach(handlers => handlers[name] && handlers[name](...args));
+};
+
+// Each connection uses a fresh ticket, so on error the stream is reopened here instead of
+// letting the browser retry with the old, soon expired one. After a reconnect subscribers
+// reload what they may have missed while disconnected.
+const connectMessageStream = async (reconnect) => {
+    const generation = ++messageStream.generation;
+    try {
+        const ticket = await messageService.getStreamTicket();
+        // Closed (or reopened) while the ticket was on its way
+        if (generation !== messageStream.generation) return;
+        const baseUrl = import.meta.env.VITE_API_BASE_URL || '/api';
+        const source = new EventSource(`${baseUrl}/collaboration/messages/stream?ticket=${encodeURIComponent(ticket)}`);
+        source.onopen = () => reconnect && notifyListeners('onReconnect');
+        source.addEventListener('message', (e) => notifyListeners('onMessage', JSON.parse(e.data)));
+        source.addEventListener('unread-count', (e) => notifyListeners('onUnreadCount', Number(e.data)));
+        source.addEventListener('activity', () => notifyListeners('onActivity'));
+        source.onerror = () => {
+            source.close();
+            scheduleMessageStreamReconnect();
+        };
+        messageStream.source = source;
+    } catch (error) {
+        scheduleMessageStreamReconnect();
+    }
+};
+
+const scheduleMessageStreamReconnect = () => {
+    messageStream.source = null;
+    if (messageStream.listeners.size > 0 && !messageStream.retryTimer) {
+        messageStream.retryTimer = setTimeout(() => {
+            messageStream.retryTimer = null;
+            connectMessageStream(true);
+        }, 5000);
+    }
+};
+
+const disconnectMessageStream = () => {
+    messageStream.generation++;
+    clearTimeout(messageStream.retryTimer);
+    messageStream.retryTimer = null;
+    if (messageStream.source) {
+        messageStream.source.close();
+        messageStream.source = null;
     }
 };